@@ -0,0 +1,121 @@
+package com.myproject.ocr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// OCR em 300 DPI fixo x adaptativo (ocr.dpi.adaptive) no corpus escaneado do LoadTest:
+// paginas/segundo, paginas que voltaram para 300 DPI e acerto de palavras contra o texto original do PDF
+// imprime a tabela e grava o relatório JSON em target/adaptive-dpi/report-<timestamp>.json (--out muda a pasta)
+// uso: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.myproject.ocr.AdaptiveDpiComparison -Djmh.args="--documents=4 --pages=2"
+public class AdaptiveDpiComparison {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        int documents = Integer.parseInt(options.getOrDefault("documents", "4"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "2"));
+        int scanDpi = Integer.parseInt(options.getOrDefault("dpi", "200"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "2"));
+        Path out = Path.of(options.getOrDefault("out", "target/adaptive-dpi"));
+
+        List<byte[]> corpus = new ArrayList<>();
+        List<Map<String, Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            long seed = SyntheticInputs.SEED + i;
+            corpus.add(SyntheticInputs.scannedPdfBytes(pages, scanDpi, seed));
+            try (PDDocument original = SyntheticInputs.textDocument(pages, seed)) {
+                expected.add(words(new PDFTextStripper().getText(original)));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().toString());
+        report.put("corpus", Map.of("documents", documents, "pagesPerDocument", pages, "dpi", scanDpi, "rounds", rounds));
+        Map<String, Object> modes = new LinkedHashMap<>();
+
+        System.out.printf("%-12s %10s %12s %10s%n", "modo", "pag/s", "em 300 DPI", "acerto");
+        for (boolean adaptive : new boolean[]{false, true}) {
+            // sem cache: cada rodada refaz o OCR
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OcrApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("ocr.cache.enabled=false", "ocr.dpi.adaptive=" + adaptive, "ocr.warmup.enabled=false",
+                            "spring.main.banner-mode=off")
+                    .run()) {
+                OcrService service = context.getBean(OcrService.class);
+
+                // primeira rodada aquece os motores e o JIT
+                run(service, corpus, expected);
+                long start = System.nanoTime();
+                Result result = null;
+                for (int r = 0; r < rounds; r++) result = run(service, corpus, expected);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double pagesPerSecond = rounds * result.pages() / seconds;
+                double highDpiShare = result.highDpi() / (double) result.pages();
+                System.out.printf("%-12s %10.2f %11.0f%% %9.1f%%%n", adaptive ? "adaptativo" : "300 DPI",
+                        pagesPerSecond, 100 * highDpiShare, 100 * result.accuracy());
+                modes.put(adaptive ? "adaptive" : "fixed300", Map.of("pagesPerSecond", pagesPerSecond,
+                        "highDpiShare", highDpiShare, "wordAccuracy", result.accuracy(), "pages", result.pages()));
+            }
+        }
+
+        report.put("modes", modes);
+        Files.createDirectories(out);
+        Path file = out.resolve("report-" + System.currentTimeMillis() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Relatório: " + file.toAbsolutePath());
+    }
+
+    private record Result(int pages, int highDpi, double accuracy) {
+    }
+
+    private static Result run(OcrService service, List<byte[]> corpus, List<Map<String, Integer>> expected) throws Exception {
+        int pages = 0;
+        int highDpi = 0;
+        long found = 0;
+        long total = 0;
+
+        for (int i = 0; i < corpus.size(); i++) {
+            StringBuilder text = new StringBuilder();
+            for (PageText page : service.extractPages(new ByteArrayInputStream(corpus.get(i)), true)) {
+                text.append(page.text()).append('\n');
+                pages++;
+                if (page.dpi() != null && page.dpi() >= 300) highDpi++;
+            }
+
+            // palavras do original encontradas no OCR (contando repetições)
+            Map<String, Integer> recognized = words(text.toString());
+            for (Map.Entry<String, Integer> word : expected.get(i).entrySet()) {
+                found += Math.min(word.getValue(), recognized.getOrDefault(word.getKey(), 0));
+                total += word.getValue();
+            }
+        }
+        return new Result(pages, highDpi, total == 0 ? 0 : found / (double) total);
+    }
+
+    private static Map<String, Integer> words(String text) {
+        Map<String, Integer> words = new HashMap<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}]+")) {
+            if (!word.isEmpty()) words.merge(word, 1, Integer::sum);
+        }
+        return words;
+    }
+}
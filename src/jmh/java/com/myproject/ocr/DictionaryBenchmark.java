@@ -0,0 +1,99 @@
+package com.myproject.ocr;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// compara o carregamento do br-utf8.txt em HashSet (loadDictionary) com o DAWG mapeado em memoria
+// consumo de heap: ver DictionaryFootprint
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DictionaryBenchmark {
+
+    static final String SOURCE = "src/main/resources/static/ocr/br-utf8.txt";
+
+    private Path compiled;
+    private MappedDawg dawg;
+    private Set<String> hashSet;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        hashSet = OcrService.loadDictionary(SOURCE);
+        compiled = Files.createTempFile("br-utf8", ".dawg");
+        DawgBuilder.compile(hashSet, compiled);
+        dawg = MappedDawg.open(compiled);
+
+        // palavras do proprio dicionario (sem acento) e variações com um erro, sempre as mesmas
+        List<String> sorted = new ArrayList<>(new TreeSet<>(hashSet));
+        List<String> picked = new ArrayList<>();
+        for (int i = 0; i < sorted.size() && picked.size() < 256; i += sorted.size() / 128) {
+            String folded = OcrDictionary.fold(sorted.get(i));
+            picked.add(folded);
+            picked.add(folded.length() > 3 ? folded.substring(0, 2) + "x" + folded.substring(3) : folded + "x");
+        }
+        queries = picked.toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(compiled);
+    }
+
+    private String nextQuery() {
+        String query = queries[next];
+        next = (next + 1) % queries.length;
+        return query;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public Set<String> loadHashSet() throws IOException {
+        return OcrService.loadDictionary(SOURCE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public boolean openDawg() throws IOException {
+        return MappedDawg.open(compiled).contains("casa");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void compileDawg() throws IOException {
+        DawgBuilder.compile(hashSet, compiled);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean containsDawg() {
+        return dawg.contains(nextQuery());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<MappedDawg.Match> searchDawgDistance2() {
+        return dawg.search(nextQuery(), 2);
+    }
+}
@@ -0,0 +1,47 @@
+package com.myproject.ocr;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+// heap retido e tempo de carga: loadDictionary (HashSet) x DAWG mapeado em memoria
+// uso: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.myproject.ocr.DictionaryFootprint
+public class DictionaryFootprint {
+
+    public static void main(String[] args) throws IOException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long before = usedHeap(memory);
+        long start = System.nanoTime();
+        Set<String> hashSet = OcrService.loadDictionary(DictionaryBenchmark.SOURCE);
+        long hashSetMillis = (System.nanoTime() - start) / 1_000_000;
+        long hashSetHeap = usedHeap(memory) - before;
+
+        Path compiled = Files.createTempFile("br-utf8", ".dawg");
+        DawgBuilder.compile(hashSet, compiled);
+        int words = hashSet.size();
+        hashSet = null;
+
+        before = usedHeap(memory);
+        start = System.nanoTime();
+        MappedDawg dawg = MappedDawg.open(compiled);
+        dawg.contains("casa");
+        long dawgMillis = (System.nanoTime() - start) / 1_000_000;
+        long dawgHeap = usedHeap(memory) - before;
+
+        System.out.printf("%-10s %10s %12s %12s%n", "formato", "palavras", "heap (KB)", "carga (ms)");
+        System.out.printf("%-10s %10d %12d %12d%n", "HashSet", words, hashSetHeap / 1024, hashSetMillis);
+        System.out.printf("%-10s %10d %12d %12d   arquivo: %d KB fora do heap%n", "DAWG", dawg.wordCount(),
+                dawgHeap / 1024, dawgMillis, Files.size(compiled) / 1024);
+
+        Files.deleteIfExists(compiled);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
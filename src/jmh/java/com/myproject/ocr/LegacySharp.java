@@ -0,0 +1,56 @@
+package com.myproject.ocr;
+
+import org.bytedeco.javacpp.indexer.FloatRawIndexer;
+import org.bytedeco.opencv.opencv_core.Mat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import static org.bytedeco.opencv.global.opencv_core.*;
+import static org.bytedeco.opencv.global.opencv_imgproc.*;
+
+// copia do OcrService.sharp original (3 buffers intermediarios, kernel recriado, Mats não liberados)
+// mantida só como referencia para o SharpBenchmark
+final class LegacySharp {
+
+    private LegacySharp() {
+    }
+
+    static BufferedImage sharp(BufferedImage image) {
+        Mat mat = bufferedImageToMat(image);
+
+        Mat gray = new Mat();
+        cvtColor(mat, gray, COLOR_BGR2GRAY);
+
+        Mat kernel = new Mat(3, 3, CV_32F);
+        FloatRawIndexer indexer = kernel.createIndexer();
+        indexer.put(0, 0,  0f);  indexer.put(0, 1, -1f);  indexer.put(0, 2,  0f);
+        indexer.put(1, 0, -1f);  indexer.put(1, 1,  9f);  indexer.put(1, 2, -1f);
+        indexer.put(2, 0,  0f);  indexer.put(2, 1, -1f);  indexer.put(2, 2,  0f);
+        indexer.release();
+
+        Mat result = new Mat();
+        filter2D(gray, result, gray.depth(), kernel);
+
+        return matToBufferedImage(result);
+    }
+
+    static Mat bufferedImageToMat(BufferedImage bi) {
+        BufferedImage convertedImg = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        convertedImg.getGraphics().drawImage(bi, 0, 0, null);
+
+        byte[] pixels = ((DataBufferByte) convertedImg.getRaster().getDataBuffer()).getData();
+        Mat mat = new Mat(bi.getHeight(), bi.getWidth(), CV_8UC3);
+        mat.data().put(pixels);
+        return mat;
+    }
+
+    static BufferedImage matToBufferedImage(Mat mat) {
+        int type = (mat.channels() == 1) ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_3BYTE_BGR;
+        BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), type);
+        byte[] data = new byte[mat.cols() * mat.rows() * mat.channels()];
+        mat.data().get(data);
+        image.getRaster().setDataElements(0, 0, mat.cols(), mat.rows(), data);
+        return image;
+    }
+}
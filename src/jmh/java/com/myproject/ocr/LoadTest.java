@@ -0,0 +1,312 @@
+package com.myproject.ocr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// teste de carga ponta a ponta do POST /ocr e /ocr/corrrect, sem acesso a rede externa
+// - gera um corpus deterministico de PDFs escaneados (imagem com ruido, sem camada de texto)
+// - sobe a aplicação no mesmo processo (porta aleatoria) ou usa --url de um serviço já rodando
+// - N clientes concorrentes, latencia de cada requisição, CPU/heap do processo amostrados durante o teste
+// - relatorio JSON em target/loadtest
+//
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.myproject.ocr.LoadTest -Djmh.args="--concurrency=4 --requests=40"
+public class LoadTest {
+
+    // limites dos baldes do histograma de latencia, em ms
+    private static final long[] BUCKETS_MS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 60000, 120000};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "40"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", String.valueOf(concurrency)));
+        int documents = Integer.parseInt(options.getOrDefault("documents", "8"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "2"));
+        int dpi = Integer.parseInt(options.getOrDefault("dpi", "200"));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(SyntheticInputs.SEED)));
+        boolean cache = Boolean.parseBoolean(options.getOrDefault("cache", "false"));
+        List<String> endpoints = List.of(options.getOrDefault("endpoints", "ocr,corrrect").split(","));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest"));
+
+        System.out.println("Gerando corpus: " + documents + " documentos x " + pages + " páginas (" + dpi + " DPI)");
+        List<byte[]> corpus = new ArrayList<>();
+        long corpusBytes = 0;
+        for (int i = 0; i < documents; i++) {
+            byte[] pdf = SyntheticInputs.scannedPdfBytes(pages, dpi, seed + i);
+            corpus.add(pdf);
+            corpusBytes += pdf.length;
+        }
+
+        ConfigurableApplicationContext context = null;
+        String url = options.get("url");
+        if (url == null) {
+            // sem cache por padrão: o corpus se repete e o teste mediria só o cache
+            context = new SpringApplicationBuilder(OcrApplication.class)
+                    .properties("server.port=0", "ocr.cache.enabled=" + cache, "ocr.warmup.async=false",
+                            "spring.main.banner-mode=off")
+                    .run();
+            url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        } else if (!cache) {
+            System.out.println("⚠️ Serviço externo: desligue o cache (ocr.cache.enabled=false) para medir o OCR de verdade");
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().toString());
+        report.put("config", new LinkedHashMap<>(Map.of(
+                "url", url, "embedded", context != null, "concurrency", concurrency, "requests", requests,
+                "warmup", warmup, "cache", cache, "seed", seed)));
+        report.put("corpus", Map.of("documents", documents, "pagesPerDocument", pages, "dpi", dpi, "bytes", corpusBytes));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Map<String, Object> results = new LinkedHashMap<>();
+        try {
+            for (String endpoint : endpoints) {
+                Target target = Target.of(url, endpoint.trim(), pages);
+                System.out.println("Aquecendo " + target.path + " (" + warmup + " requisições)");
+                run(client, target, corpus, concurrency, warmup, null);
+
+                System.out.println("Medindo " + target.path + " (" + requests + " requisições, " + concurrency + " clientes)");
+                ResourceSampler sampler = new ResourceSampler();
+                results.put(target.name, run(client, target, corpus, concurrency, requests, sampler));
+            }
+        } finally {
+            if (context != null) context.close();
+        }
+        report.put("endpoints", results);
+
+        Files.createDirectories(out);
+        Path file = out.resolve("report-" + System.currentTimeMillis() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Relatório: " + file.toAbsolutePath());
+    }
+
+    // endpoint testado: "ocr" (POST /ocr com todas as paginas) ou "corrrect" (POST /ocr/corrrect)
+    private record Target(String name, String path, URI uri, int pagesPerRequest) {
+        static Target of(String url, String name, int pages) {
+            String path = name.equals("ocr") ? "/ocr" : "/ocr/" + name;
+            return new Target(name, path, URI.create(url + path), pages);
+        }
+
+        HttpRequest request(byte[] pdf, int index) {
+            String boundary = "----loadtest" + index;
+            Map<String, String> fields = new LinkedHashMap<>();
+            if (name.equals("ocr")) {
+                StringBuilder paginas = new StringBuilder();
+                for (int p = 1; p <= pagesPerRequest; p++) {
+                    if (p > 1) paginas.append(',');
+                    paginas.append(p);
+                }
+                fields.put("data", "{\"paginas\":[" + paginas + "]}");
+            }
+
+            return HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMinutes(10))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, pdf, fields)))
+                    .build();
+        }
+    }
+
+    // dispara :count requisições com :concurrency clientes; devolve as metricas (null no aquecimento)
+    private static Map<String, Object> run(HttpClient client, Target target, List<byte[]> corpus, int concurrency,
+                                           int count, ResourceSampler sampler) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+
+        if (sampler != null) sampler.start();
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            futures.add(clients.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    long begin = System.nanoTime();
+                    HttpResponse<Void> response = client.send(target.request(corpus.get(i % corpus.size()), i),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) latencies.add(System.nanoTime() - begin);
+                    else errors.incrementAndGet();
+                }
+                return latencies.stream().mapToLong(Long::longValue).toArray();
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> future : futures) perClient.add(future.get());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        clients.shutdown();
+        if (sampler == null) return null;
+
+        long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", target.path);
+        result.put("requests", count);
+        result.put("succeeded", latencies.length);
+        result.put("errors", errors.get());
+        result.put("durationSeconds", seconds);
+        result.put("requestsPerSecond", latencies.length / seconds);
+        result.put("pagesPerSecond", latencies.length * (double) target.pagesPerRequest / seconds);
+        result.put("latencyMs", latencySummary(latencies));
+        result.put("histogram", histogram(latencies));
+        result.put("process", sampler.stop());
+        return result;
+    }
+
+    private static Map<String, Object> latencySummary(long[] sortedNanos) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (sortedNanos.length == 0) return summary;
+
+        summary.put("min", sortedNanos[0] / 1e6);
+        summary.put("mean", Arrays.stream(sortedNanos).average().orElse(0) / 1e6);
+        summary.put("p50", percentile(sortedNanos, 50));
+        summary.put("p90", percentile(sortedNanos, 90));
+        summary.put("p99", percentile(sortedNanos, 99));
+        summary.put("max", sortedNanos[sortedNanos.length - 1] / 1e6);
+        return summary;
+    }
+
+    // percentil pelo metodo nearest-rank
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static List<Map<String, Object>> histogram(long[] nanos) {
+        long[] counts = new long[BUCKETS_MS.length + 1];
+        for (long latency : nanos) {
+            long ms = latency / 1_000_000;
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && ms > BUCKETS_MS[bucket]) bucket++;
+            counts[bucket]++;
+        }
+
+        List<Map<String, Object>> histogram = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("upToMs", i < BUCKETS_MS.length ? BUCKETS_MS[i] : null);
+            bucket.put("count", counts[i]);
+            histogram.add(bucket);
+        }
+        return histogram;
+    }
+
+    private static byte[] multipart(String boundary, byte[] pdf, Map<String, String> fields) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(pdf.length + 512);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + field.getKey() + "\"\r\n\r\n"
+                    + field.getValue() + "\r\n");
+        }
+        write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"documento.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n");
+        body.writeBytes(pdf);
+        write(body, "\r\n--" + boundary + "--\r\n");
+        return body.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --chave=valor
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (use --chave=valor): " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    // amostra CPU e heap deste processo (no modo embutido inclui o serviço e os clientes)
+    private static final class ResourceSampler {
+        private final com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        private Thread thread;
+        private volatile boolean running;
+        private long startWall;
+        private long startCpu;
+        private long startGcCount;
+        private long startGcMillis;
+        private double maxCpuLoad;
+        private long maxHeapUsed;
+
+        void start() {
+            startWall = System.nanoTime();
+            startCpu = os.getProcessCpuTime();
+            startGcCount = gcCount();
+            startGcMillis = gcMillis();
+            running = true;
+            thread = new Thread(() -> {
+                while (running) {
+                    maxCpuLoad = Math.max(maxCpuLoad, os.getProcessCpuLoad());
+                    maxHeapUsed = Math.max(maxHeapUsed, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+                    try {
+                        Thread.sleep(250);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "loadtest-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Map<String, Object> stop() throws InterruptedException {
+            running = false;
+            thread.interrupt();
+            thread.join();
+
+            double wallSeconds = (System.nanoTime() - startWall) / 1e9;
+            double cpuSeconds = (os.getProcessCpuTime() - startCpu) / 1e9;
+
+            Map<String, Object> process = new LinkedHashMap<>();
+            process.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            process.put("cpuSeconds", cpuSeconds);
+            process.put("averageCoresUsed", cpuSeconds / wallSeconds);
+            process.put("maxCpuLoad", maxCpuLoad);
+            process.put("maxHeapUsedBytes", maxHeapUsed);
+            process.put("heapMaxBytes", Runtime.getRuntime().maxMemory());
+            process.put("gcCollections", gcCount() - startGcCount);
+            process.put("gcMillis", gcMillis() - startGcMillis);
+            return process;
+        }
+
+        private static long gcCount() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+        }
+
+        private static long gcMillis() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+        }
+    }
+}
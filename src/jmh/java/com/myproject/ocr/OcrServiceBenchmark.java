@@ -0,0 +1,122 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.rendering.ImageType;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// pontos quentes do OcrService com entradas sinteticas fixas (SyntheticInputs)
+// vazão + taxa de alocação: mvn -Pbenchmark test-compile exec:exec -Djmh.args="OcrService -prof gc"
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OcrServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OcrService service;
+
+    private BufferedImage grayPage;
+    private Mat sharpened;
+    private String noisyText;
+    private String cleanedText;
+    private Set<String> suspiciousWords;
+    private Set<String> reliableWords;
+    private File pdf;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // mesmo contexto da aplicação, sem servidor web e sem caches (senão a partir da 2a chamada só mede o cache)
+        context = new SpringApplicationBuilder(OcrApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("ocr.cache.enabled=false", "ocr.suggestions.cache.max-size=0", "ocr.pool.min-size=0",
+                        "ocr.warmup.enabled=false", "spring.main.banner-mode=off")
+                .run();
+        service = context.getBean(OcrService.class);
+        OcrDictionary dictionary = context.getBean(OcrDictionary.class);
+
+        grayPage = SyntheticInputs.renderPage(300, ImageType.GRAY);
+        sharpened = PagePreprocessor.bufferedImageToMat(service.sharp(grayPage));
+
+        noisyText = SyntheticInputs.noisyText(200, SyntheticInputs.SEED);
+
+        // as linhas mantidas pelo cleanText alimentam o textCorrector
+        cleanedText = (String) service.cleanText(noisyText).get("original");
+
+        suspiciousWords = new HashSet<>();
+        reliableWords = new HashSet<>();
+        for (String word : cleanedText.split("\\s+")) {
+            String folded = OcrDictionary.fold(word).replaceAll("[^a-z]", "");
+            if (folded.length() <= 1) continue;
+            (dictionary.contains(folded) ? reliableWords : suspiciousWords).add(folded);
+        }
+
+        pdf = File.createTempFile("ocr-benchmark", ".pdf");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sharpened.close();
+        Files.deleteIfExists(pdf.toPath());
+        context.close();
+    }
+
+    @Benchmark
+    public BufferedImage sharp() {
+        return service.sharp(grayPage);
+    }
+
+    @Benchmark
+    public long bufferedImageToMat() {
+        try (Mat mat = PagePreprocessor.bufferedImageToMat(grayPage)) {
+            return mat.total();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage matToBufferedImage() {
+        return PagePreprocessor.matToBufferedImage(sharpened);
+    }
+
+    // log por linha só em DEBUG, aqui mede o caminho com o log desligado (INFO)
+    @Benchmark
+    public Map<String, Object> cleanText() throws IOException {
+        return service.cleanText(noisyText);
+    }
+
+    // só as regras de linha do cleanText, sem cache nem correção
+    @Benchmark
+    public String filterLines() {
+        return LineClassifier.filter(noisyText, (number, verdict) -> {});
+    }
+
+    @Benchmark
+    public Map<String, Object> textCorrector() throws IOException {
+        return service.textCorrector(cleanedText);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> suggestMultipleCorrections() {
+        return service.suggestMultipleCorrections(suspiciousWords, reliableWords);
+    }
+
+    @Benchmark
+    public long toPdf() throws IOException {
+        service.toPdf(noisyText, pdf);
+        return pdf.length();
+    }
+}
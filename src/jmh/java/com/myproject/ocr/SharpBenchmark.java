@@ -0,0 +1,53 @@
+package com.myproject.ocr;
+
+import net.sourceforge.tess4j.TesseractException;
+import org.apache.pdfbox.rendering.ImageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// nitidez de uma pagina A4 a 300 DPI: sharp original x PagePreprocessor
+// alocação: rodar com -Djmh.args="Sharp -prof gc"
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SharpBenchmark {
+
+    private BufferedImage rgbPage;
+    private BufferedImage grayPage;
+    private PagePreprocessor preprocessor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // o original recebia a pagina colorida, o novo caminho renderiza direto em cinza
+        rgbPage = SyntheticInputs.renderPage(300, ImageType.RGB);
+        grayPage = SyntheticInputs.renderPage(300, ImageType.GRAY);
+        preprocessor = new PagePreprocessor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        preprocessor.release();
+    }
+
+    @Benchmark
+    public BufferedImage legacySharp() {
+        return LegacySharp.sharp(rgbPage);
+    }
+
+    @Benchmark
+    public BufferedImage sharpToBufferedImage() {
+        return preprocessor.sharpen(grayPage);
+    }
+
+    // caminho usado no getOcr: o resultado fica na memoria nativa e vai direto para o Tesseract
+    @Benchmark
+    public int sharpZeroCopy() throws TesseractException {
+        return preprocessor.sharpen(grayPage, pixels -> pixels.data().get(pixels.data().limit() / 2));
+    }
+}
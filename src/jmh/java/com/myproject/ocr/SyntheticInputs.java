@@ -0,0 +1,173 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.Random;
+
+// entradas sinteticas e reproduziveis (semente fixa) para os benchmarks
+final class SyntheticInputs {
+
+    static final long SEED = 42;
+
+    static final String[] WORDS = {
+            "contrato", "prestação", "serviços", "cláusula", "pagamento", "parágrafo", "empresa", "contratante",
+            "contratada", "prazo", "vigência", "rescisão", "valor", "mensal", "documento", "assinatura",
+            "testemunha", "endereço", "município", "estado", "certidão", "registro", "processo", "instituição",
+            "ação", "informação", "de", "da", "do", "em", "para", "com", "que", "por", "não", "uma", "os", "as"
+    };
+
+    private SyntheticInputs() {
+    }
+
+    static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // PDF A4 com :pages paginas de texto corrido em Helvetica 11
+    static PDDocument textDocument(int pages, long seed) throws IOException {
+        Random random = new Random(seed);
+        PDDocument document = new PDDocument();
+
+        for (int p = 0; p < pages; p++) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 11);
+                content.setLeading(14f);
+                content.newLineAtOffset(50, 790);
+                for (int line = 0; line < 50; line++) {
+                    content.showText(sentence(random, 6 + random.nextInt(6)));
+                    content.newLine();
+                }
+                content.endText();
+            }
+        }
+
+        return document;
+    }
+
+    static byte[] pdfBytes(int pages, long seed) throws IOException {
+        try (PDDocument document = textDocument(pages, seed)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    // texto com cara de saida do Tesseract: letras trocadas (rn/m, l/1, o/0), acentos perdidos,
+    // linhas de lixo (curtas, caracteres repetidos, sequencias de "palavras" de 1-2 letras) e numeros soltos
+    static String noisyText(int lines, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < lines; i++) {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                sb.append("|||").append(random.nextInt(10)).append("==>");
+            } else if (kind == 1) {
+                sb.append("a e 1 o 2 u ").append(WORDS[random.nextInt(WORDS.length)]);
+            } else if (kind == 2) {
+                sb.append("-").append(random.nextInt(100));
+            } else if (kind == 3) {
+                sb.append("mmmmmm ").append(sentence(random, 3));
+            } else {
+                sb.append(noisy(random, sentence(random, 6 + random.nextInt(8))));
+                if (random.nextInt(4) == 0) sb.append(" ").append(random.nextInt(2000));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String noisy(Random random, String line) {
+        StringBuilder sb = new StringBuilder(line.length() + 8);
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int roll = random.nextInt(100);
+            if (roll < 3 && c == 'm') sb.append("rn");
+            else if (roll < 5 && c == 'l') sb.append('1');
+            else if (roll < 7 && c == 'o') sb.append('0');
+            else if (roll < 12) sb.append(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    // PDF "escaneado": cada pagina é só uma imagem (sem camada de texto), levemente torta, com ruido e em JPEG
+    static byte[] scannedPdfBytes(int pages, int dpi, long seed) throws IOException {
+        Random random = new Random(seed);
+
+        try (PDDocument text = textDocument(pages, seed); PDDocument scanned = new PDDocument()) {
+            PDFRenderer renderer = new PDFRenderer(text);
+
+            for (int p = 0; p < pages; p++) {
+                BufferedImage image = scan(renderer.renderImageWithDPI(p, dpi, ImageType.GRAY), random);
+
+                PDPage page = new PDPage(PDRectangle.A4);
+                scanned.addPage(page);
+                PDImageXObject xObject = JPEGFactory.createFromImage(scanned, image, 0.75f);
+                try (PDPageContentStream content = new PDPageContentStream(scanned, page)) {
+                    content.drawImage(xObject, 0, 0, PDRectangle.A4.getWidth(), PDRectangle.A4.getHeight());
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scanned.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    // gira até 1 grau e aplica ruido gaussiano + sal e pimenta, como uma digitalização ruim
+    private static BufferedImage scan(BufferedImage page, Random random) {
+        BufferedImage scanned = new BufferedImage(page.getWidth(), page.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = scanned.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, page.getWidth(), page.getHeight());
+        g.rotate(Math.toRadians(random.nextDouble() * 2 - 1), page.getWidth() / 2.0, page.getHeight() / 2.0);
+        g.drawImage(page, 0, 0, null);
+        g.dispose();
+
+        WritableRaster raster = scanned.getRaster();
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                int roll = random.nextInt(1000);
+                int value;
+                if (roll == 0) value = 0;
+                else if (roll == 1) value = 255;
+                else value = raster.getSample(x, y, 0) + (int) (random.nextGaussian() * 12);
+                raster.setSample(x, y, 0, Math.max(0, Math.min(255, value)));
+            }
+        }
+        return scanned;
+    }
+
+    static BufferedImage renderPage(int dpi, ImageType type) throws IOException {
+        try (PDDocument document = textDocument(1, SEED)) {
+            return new PDFRenderer(document).renderImageWithDPI(0, dpi, type);
+        }
+    }
+}
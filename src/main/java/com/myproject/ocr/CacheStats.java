@@ -0,0 +1,7 @@
+package com.myproject.ocr;
+
+// fotografia do cache de OCR (memoria e disco)
+public record CacheStats(boolean enabled, int memoryEntries, long memoryBytes, long memoryMaxBytes,
+                         int diskEntries, long diskBytes, long diskMaxBytes,
+                         long memoryHits, long diskHits, long misses, long puts, long evictions, double hitRatio) {
+}
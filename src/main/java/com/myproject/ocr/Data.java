@@ -4,5 +4,20 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 
 import java.util.ArrayList;
 
-public record Data(PDDocument document, ArrayList<Integer> paginas) {
+// :hash é o sha-256 do PDF enviado (chave do cache), null desliga o cache para o pedido
+// :saida null = OutputMode.PAGES
+public record Data(PDDocument document, ArrayList<Integer> paginas, Integer paralelismo, boolean forcarOcr, String hash,
+                   OutputMode saida) {
+
+    public Data(PDDocument document, ArrayList<Integer> paginas, Integer paralelismo, boolean forcarOcr) {
+        this(document, paginas, paralelismo, forcarOcr, null, null);
+    }
+
+    public Data(PDDocument document, ArrayList<Integer> paginas, Integer paralelismo, boolean forcarOcr, String hash) {
+        this(document, paginas, paralelismo, forcarOcr, hash, null);
+    }
+
+    public OutputMode outputMode() {
+        return saida == null ? OutputMode.PAGES : saida;
+    }
 }
@@ -0,0 +1,215 @@
+package com.myproject.ocr;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// compila uma lista de palavras em um automato minimo (DAWG) no formato binario lido por MappedDawg
+// construção incremental de Daciuk: as palavras precisam chegar em ordem crescente
+public class DawgBuilder {
+
+    static final int MAGIC = 0x44415747; // "DAWG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int EDGE_BYTES = 8;
+
+    // flags de cada aresta
+    static final int FINAL = 1; // a palavra termina depois desta aresta
+    static final int LAST = 2;  // ultima aresta do nó
+
+    private final Node root = new Node();
+    private final Map<Node, Node> register = new HashMap<>();
+    private String previous = "";
+    private int wordCount;
+    private boolean finished;
+
+    // compila o dicionario :words em :destination (escreve num temporario e troca no final)
+    public static void compile(Collection<String> words, Path destination) throws IOException {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String word : words) {
+            String normalized = Normalizer.normalize(word.trim().toLowerCase(), Normalizer.Form.NFC);
+            if (!normalized.isEmpty()) sorted.add(normalized);
+        }
+
+        DawgBuilder builder = new DawgBuilder();
+        sorted.forEach(builder::add);
+
+        Path parent = destination.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, destination.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            builder.write(out);
+        }
+        Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // uso: DawgBuilder <lista-de-palavras.txt> <saida.dawg>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("uso: DawgBuilder <lista-de-palavras.txt> <saida.dawg>");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        Path destination = Path.of(args[1]);
+        compile(OcrService.loadDictionary(args[0]), destination);
+        System.out.println("📘 Dicionário compilado em " + destination + " (" + Files.size(destination)
+                + " bytes, " + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    public void add(String word) {
+        if (finished) throw new IllegalStateException("DAWG já finalizado");
+        if (word.isEmpty()) return;
+
+        int order = word.compareTo(previous);
+        if (order == 0 && wordCount > 0) return;
+        if (order < 0) throw new IllegalArgumentException("Palavras fora de ordem: '" + previous + "' antes de '" + word + "'");
+
+        int prefix = 0;
+        int max = Math.min(word.length(), previous.length());
+        while (prefix < max && word.charAt(prefix) == previous.charAt(prefix)) prefix++;
+
+        // o caminho da palavra anterior ainda não foi minimizado, sempre é o ultimo filho
+        Node node = root;
+        for (int i = 0; i < prefix; i++) {
+            node = node.lastChild();
+        }
+        if (node.size > 0) replaceOrRegister(node);
+
+        for (int i = prefix; i < word.length(); i++) {
+            Node child = new Node();
+            node.addChild(word.charAt(i), child);
+            node = child;
+        }
+        node.isFinal = true;
+
+        previous = word;
+        wordCount++;
+    }
+
+    public void write(OutputStream output) throws IOException {
+        if (!finished) {
+            if (root.size > 0) replaceOrRegister(root);
+            finished = true;
+        }
+
+        // cada nó com arestas ganha um bloco continuo, na ordem da busca em largura
+        Map<Node, Integer> offsets = new IdentityHashMap<>();
+        List<Node> ordered = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        int edgeCount = 0;
+
+        if (root.size > 0) {
+            offsets.put(root, 0);
+            ordered.add(root);
+            pending.add(root);
+            edgeCount = root.size;
+        }
+
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            for (int i = 0; i < node.size; i++) {
+                Node child = node.targets[i];
+                if (child.size == 0 || offsets.containsKey(child)) continue;
+                offsets.put(child, edgeCount);
+                ordered.add(child);
+                pending.add(child);
+                edgeCount += child.size;
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(wordCount);
+        out.writeInt(edgeCount);
+        out.writeInt(root.size > 0 ? 0 : -1);
+        out.writeInt(0);
+
+        for (Node node : ordered) {
+            for (int i = 0; i < node.size; i++) {
+                Node child = node.targets[i];
+                int flags = (child.isFinal ? FINAL : 0) | (i == node.size - 1 ? LAST : 0);
+                out.writeChar(node.labels[i]);
+                out.writeShort(flags);
+                out.writeInt(child.size > 0 ? offsets.get(child) : -1);
+            }
+        }
+        out.flush();
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    // troca o ultimo filho por um nó equivalente já registrado (ou registra ele)
+    private void replaceOrRegister(Node state) {
+        Node child = state.lastChild();
+        if (child.size > 0) replaceOrRegister(child);
+
+        Node existing = register.get(child);
+        if (existing != null) {
+            state.targets[state.size - 1] = existing;
+        } else {
+            register.put(child, child);
+        }
+    }
+
+    private static final class Node {
+        char[] labels = new char[2];
+        Node[] targets = new Node[2];
+        int size;
+        boolean isFinal;
+
+        Node lastChild() {
+            return targets[size - 1];
+        }
+
+        void addChild(char label, Node target) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            labels[size] = label;
+            targets[size] = target;
+            size++;
+        }
+
+        // dois nós são equivalentes se aceitam as mesmas continuações
+        // (os filhos já estão registrados, então basta comparar a identidade)
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node other)) return false;
+            if (isFinal != other.isFinal || size != other.size) return false;
+            for (int i = 0; i < size; i++) {
+                if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = isFinal ? 1 : 0;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + labels[i];
+                hash = 31 * hash + System.identityHashCode(targets[i]);
+            }
+            return hash;
+        }
+    }
+}
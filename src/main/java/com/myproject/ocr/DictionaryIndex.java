@@ -0,0 +1,116 @@
+package com.myproject.ocr;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// busca aproximada no dicionario: termos mais proximos por distancia de Levenshtein (sem acento)
+// os mesmos erros de OCR se repetem entre documentos, as sugestões ficam num cache compartilhado (Caffeine, W-TinyLFU)
+@Component
+public class DictionaryIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(DictionaryIndex.class);
+
+    // raios testados antes de ir até a distancia maxima
+    private static final int[] RADII = {2, 4};
+
+    @Autowired
+    private OcrDictionary dictionary;
+
+    // 0 desliga o cache
+    @Value("${ocr.suggestions.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    // a geração entra na chave: uma busca que começou no dicionario antigo não grava por cima do novo
+    private final AtomicLong generation = new AtomicLong();
+
+    private Cache<Key, List<String>> cache;
+
+    private record Key(long generation, String foldedWord, int limit, int maxDistance, boolean relaxLength) {
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+    }
+
+    // até :limit termos do dicionario mais proximos de :foldedWord (distancia até :maxDistance)
+    // :relaxLength libera a diferença de tamanho (já existe sugestão boa no texto)
+    // a lista devolvida é compartilhada pelo cache (imutavel)
+    public List<String> suggest(String foldedWord, int limit, int maxDistance, boolean relaxLength) {
+        Key key = new Key(generation.get(), foldedWord, limit, maxDistance, relaxLength);
+        return cache.get(key, k -> List.copyOf(search(foldedWord, limit, maxDistance, relaxLength)));
+    }
+
+    private List<String> search(String foldedWord, int limit, int maxDistance, boolean relaxLength) {
+        List<String> suggestions = new ArrayList<>();
+
+        for (int radius : radii(maxDistance)) {
+            List<MappedDawg.Match> matches = new ArrayList<>(dictionary.search(foldedWord, radius));
+            matches.sort(Comparator.comparingInt(MappedDawg.Match::distance).thenComparing(MappedDawg.Match::word));
+
+            suggestions.clear();
+            boolean goodDistanceFound = relaxLength;
+
+            for (MappedDawg.Match match : matches) {
+                if (suggestions.size() >= limit) break;
+
+                // se encontrou uma sugestão com distância até 2, libera qualquer diff
+                if (match.distance() <= 2) goodDistanceFound = true;
+
+                int diff = match.foldedLength() - foldedWord.length();
+                if (!goodDistanceFound && (diff < -2 || diff > 4)) continue;
+
+                suggestions.add(match.word());
+            }
+
+            // tudo que ficou de fora está a uma distancia maior que o raio
+            if (suggestions.size() >= limit) break;
+        }
+
+        return suggestions;
+    }
+
+    // sugestões dependem do dicionario
+    @EventListener
+    void onDictionaryReloaded(OcrDictionary.ReloadedEvent event) {
+        generation.incrementAndGet();
+        long removed = cache.estimatedSize();
+        cache.invalidateAll();
+        log.info("Cache de sugestões do dicionário limpo ({} entradas)", removed);
+    }
+
+    // cache.gets{result=hit|miss}, cache.evictions, cache.size com cache=ocr.suggestions, e a taxa de acerto
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "ocr.suggestions");
+        Gauge.builder("ocr.suggestions.hit.ratio", cache, c -> c.stats().hitRate()).register(registry);
+    }
+
+    private static List<Integer> radii(int maxDistance) {
+        List<Integer> radii = new ArrayList<>();
+        for (int radius : RADII) {
+            if (radius < maxDistance) radii.add(radius);
+        }
+        radii.add(maxDistance);
+        return radii;
+    }
+}
@@ -0,0 +1,9 @@
+package com.myproject.ocr;
+
+// de onde saiu o texto da pagina
+public enum ExtractionMethod {
+    // camada de texto já existente no PDF
+    TEXT_LAYER,
+    // renderização + Tesseract
+    OCR
+}
@@ -0,0 +1,55 @@
+package com.myproject.ocr;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// entrada do indice invertido: termo (sem acento, minusculo) -> pagina, com o numero de ocorrencias
+// id por sequencia (em blocos de 50): com IDENTITY o Hibernate não agrupa os INSERTs em batch
+@Entity
+@Table(name = "ocr_term")
+public class IndexedTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ocr_term_seq")
+    @SequenceGenerator(name = "ocr_term_seq", sequenceName = "ocr_term_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String term;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "page_id")
+    private StoredPage page;
+
+    @Column(nullable = false)
+    private int frequency;
+
+    protected IndexedTerm() {
+    }
+
+    public IndexedTerm(String term, StoredPage page, int frequency) {
+        this.term = term;
+        this.page = page;
+        this.frequency = frequency;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public StoredPage getPage() {
+        return page;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+}
@@ -0,0 +1,29 @@
+package com.myproject.ocr;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IndexedTermRepository extends JpaRepository<IndexedTerm, Long> {
+
+    // paginas com os termos, mais termos encontrados primeiro e depois por tf-idf, só as :limit primeiras
+    // [page_id, termos encontrados, score]; o idf de cada termo vem da subconsulta (em quantas paginas ele aparece)
+    // SQL simples (LN, LIMIT) que roda em H2, PostgreSQL e MySQL; o texto das paginas não é lido aqui
+    @Query(nativeQuery = true, value = """
+            SELECT t.page_id, COUNT(*) AS matched, SUM((1 + LN(t.frequency)) * LN(1 + :totalPages / df.n)) AS score
+            FROM ocr_term t
+            JOIN (SELECT term, COUNT(*) AS n FROM ocr_term WHERE term IN (:terms) GROUP BY term) df ON df.term = t.term
+            WHERE t.term IN (:terms)
+            GROUP BY t.page_id
+            ORDER BY matched DESC, score DESC
+            LIMIT :limit""")
+    List<Object[]> rank(@Param("terms") Collection<String> terms, @Param("totalPages") double totalPages, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from IndexedTerm t where t.page = :page")
+    int deleteByPage(@Param("page") StoredPage page);
+}
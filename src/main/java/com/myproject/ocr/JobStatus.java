@@ -0,0 +1,9 @@
+package com.myproject.ocr;
+
+import java.time.Instant;
+import java.util.List;
+
+// fotografia de um job assincrono de OCR
+public record JobStatus(String id, OcrJob.State state, int totalPages, int completedPages, List<PageResult> pages,
+                        String error, Instant createdAt, Instant finishedAt) {
+}
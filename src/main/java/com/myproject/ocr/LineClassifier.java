@@ -0,0 +1,239 @@
+package com.myproject.ocr;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// regras de rejeição de linhas do cleanText em uma unica passada por linha, sem regex e sem Strings intermediarias
+// equivalente a:
+//   clean = line.trim().replaceAll("[=>'\"—!]", "")
+//   SHORT       clean.length() < 6
+//   SMALL_WORDS clean.split("\\s+") com mais de 2 palavras pequenas seguidas (até 2 chars ou só digitos) e menos de 2 grandes (6+)
+//   REPEATED    "(.)\\1{2,}" em clean sem digitos, repetindo algo diferente de espaço e ponto
+// as linhas vêm de text.split("\\r?\\n") (linhas vazias no fim são descartadas, como no split)
+// só não reproduz o regex com surrogates soltos (UTF-16 invalido), que o Tesseract/PDFBox não geram
+public final class LineClassifier {
+
+    // resultado de cada linha, na ordem de prioridade das regras
+    public enum Verdict {
+        KEPT, SHORT, SMALL_WORDS, REPEATED
+    }
+
+    // recebe o veredito de cada linha (numeradas a partir de 1)
+    @FunctionalInterface
+    public interface Listener {
+        void line(int number, Verdict verdict);
+    }
+
+    private static final int MIN_LENGTH = 6;
+    private static final int BIG_WORD = 6;
+
+    private LineClassifier() {
+    }
+
+    // classifica uma unica linha (sem o \n)
+    public static Verdict classify(CharSequence line) {
+        return scan(line, 0, line.length(), null);
+    }
+
+    // devolve as linhas mantidas (limpas, cada uma seguida de \n) e avisa :listener de todas
+    public static String filter(CharSequence text, Listener listener) {
+        StringBuilder kept = new StringBuilder(text.length());
+        Splitter splitter = new Splitter(kept, listener);
+
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                splitter.line(text, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        splitter.last(text, lineStart, text.length());
+        return kept.toString();
+    }
+
+    // mesmo filtro lendo de um Reader, para textos grandes que não precisam estar inteiros na memoria
+    public static String filter(Reader in, Listener listener) throws IOException {
+        StringBuilder kept = new StringBuilder();
+        Splitter splitter = new Splitter(kept, listener);
+        StringBuilder line = new StringBuilder(256);
+        char[] buffer = new char[8192];
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    splitter.line(line, 0, line.length());
+                    line.setLength(0);
+                } else {
+                    line.append(buffer[i]);
+                }
+            }
+        }
+        splitter.last(line, 0, line.length());
+        return kept.toString();
+    }
+
+    // quebra em linhas como split("\\r?\\n"): tira o \r antes do \n e ignora as linhas vazias do fim
+    private static final class Splitter {
+        final StringBuilder kept;
+        final Listener listener;
+        int number;
+        int pendingEmpty;
+        boolean separated;
+
+        Splitter(StringBuilder kept, Listener listener) {
+            this.kept = kept;
+            this.listener = listener;
+        }
+
+        void line(CharSequence text, int start, int end) {
+            if (end > start && text.charAt(end - 1) == '\r') end--;
+            separated = true;
+
+            // linha vazia só conta se aparecer alguma linha depois dela
+            if (end == start) {
+                pendingEmpty++;
+                return;
+            }
+            flushEmpty();
+            classify(text, start, end);
+        }
+
+        void last(CharSequence text, int start, int end) {
+            if (end > start) {
+                flushEmpty();
+                classify(text, start, end);
+            } else if (!separated) {
+                // texto vazio: o split devolve uma linha vazia
+                classify(text, start, end);
+            }
+        }
+
+        private void flushEmpty() {
+            for (; pendingEmpty > 0; pendingEmpty--) {
+                listener.line(++number, Verdict.SHORT);
+            }
+        }
+
+        private void classify(CharSequence text, int start, int end) {
+            int mark = kept.length();
+            Verdict verdict = scan(text, start, end, kept);
+            if (verdict == Verdict.KEPT) {
+                kept.append('\n');
+            } else {
+                kept.setLength(mark);
+            }
+            listener.line(++number, verdict);
+        }
+    }
+
+    // uma passada pela linha: tamanho limpo, palavras e repetições ao mesmo tempo
+    // se :out != null, a linha limpa é escrita nele (quem chama desfaz se for rejeitada)
+    private static Verdict scan(CharSequence text, int start, int end, StringBuilder out) {
+        // trim()
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+
+        int length = 0;
+
+        // palavras, como split("\\s+")
+        boolean inWord = false;
+        boolean sawWord = false;
+        boolean leadingSpace = false;
+        int wordLength = 0;
+        boolean wordDigits = true;
+        int consecutive = 0;
+        int maxConsecutive = 0;
+        int bigWords = 0;
+
+        // repetições no texto sem digitos, por code point
+        int runCodePoint = -1;
+        int runLength = 0;
+        boolean repeated = false;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (removed(c)) continue;
+
+            length++;
+            if (out != null) out.append(c);
+
+            if (isSpace(c)) {
+                if (inWord) {
+                    inWord = false;
+                    if (wordLength <= 2 || wordDigits) {
+                        if (++consecutive > maxConsecutive) maxConsecutive = consecutive;
+                    } else {
+                        consecutive = 0;
+                    }
+                    if (wordLength >= BIG_WORD) bigWords++;
+                } else if (length == 1) {
+                    leadingSpace = true;
+                }
+            } else {
+                if (!inWord) {
+                    // o split gera uma palavra vazia (pequena) quando o texto começa com espaço
+                    if (!sawWord && leadingSpace) {
+                        consecutive = 1;
+                        maxConsecutive = 1;
+                    }
+                    inWord = true;
+                    sawWord = true;
+                    wordLength = 0;
+                    wordDigits = true;
+                }
+                wordLength++;
+                if (c < '0' || c > '9') wordDigits = false;
+            }
+
+            if (c >= '0' && c <= '9') continue;
+
+            // par de surrogates = um code point, como o "." do regex (os dois chars contam no tamanho)
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                char low = text.charAt(++i);
+                codePoint = Character.toCodePoint(c, low);
+                length++;
+                wordLength++;
+                if (out != null) out.append(low);
+            }
+
+            // "." não casa com quebras de linha, elas interrompem a sequencia
+            if (isLineTerminator(codePoint)) {
+                runCodePoint = -1;
+                runLength = 0;
+            } else if (codePoint == runCodePoint) {
+                if (++runLength == 3 && codePoint != ' ' && codePoint != '.') repeated = true;
+            } else {
+                runCodePoint = codePoint;
+                runLength = 1;
+            }
+        }
+
+        if (inWord) {
+            if (wordLength <= 2 || wordDigits) {
+                if (++consecutive > maxConsecutive) maxConsecutive = consecutive;
+            }
+            if (wordLength >= BIG_WORD) bigWords++;
+        }
+
+        if (length < MIN_LENGTH) return Verdict.SHORT;
+        if (bigWords < 2 && maxConsecutive > 2) return Verdict.SMALL_WORDS;
+        if (repeated) return Verdict.REPEATED;
+        return Verdict.KEPT;
+    }
+
+    // caracteres apagados pelo replaceAll("[=>'\"—!]", "")
+    private static boolean removed(char c) {
+        return c == '=' || c == '>' || c == '\'' || c == '"' || c == '\u2014' || c == '!';
+    }
+
+    // \\s do regex: [ \t\n\x0B\f\r]
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(int codePoint) {
+        return codePoint == '\n' || codePoint == '\r' || codePoint == '\u0085' || codePoint == '\u2028' || codePoint == '\u2029';
+    }
+}
@@ -0,0 +1,225 @@
+package com.myproject.ocr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// dicionario compilado por DawgBuilder, mapeado em memoria (fora do heap)
+// as buscas comparam a forma sem acento de cada letra, então "acao" encontra "ação"
+public class MappedDawg {
+
+    // tabela de letras sem acento/minusculas para o intervalo latino; 0 = marca de acento isolada
+    private static final char[] FOLD = new char[0x250];
+
+    static {
+        for (char c = 0; c < FOLD.length; c++) {
+            FOLD[c] = foldSlow(c);
+        }
+    }
+
+    private final ByteBuffer edges;
+    private final int wordCount;
+    private final int edgeCount;
+    private final int root;
+
+    // palavra do dicionario encontrada na busca aproximada
+    public record Match(String word, int foldedLength, int distance) {
+    }
+
+    private MappedDawg(ByteBuffer edges, int wordCount, int edgeCount, int root) {
+        this.edges = edges;
+        this.wordCount = wordCount;
+        this.edgeCount = edgeCount;
+        this.root = root;
+    }
+
+    public static MappedDawg open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.limit() < DawgBuilder.HEADER_BYTES || buffer.getInt(0) != DawgBuilder.MAGIC) {
+                throw new IOException("Arquivo não é um dicionário compilado: " + file);
+            }
+            if (buffer.getInt(4) != DawgBuilder.VERSION) {
+                throw new IOException("Versão do dicionário compilado não suportada: " + buffer.getInt(4));
+            }
+
+            int wordCount = buffer.getInt(8);
+            int edgeCount = buffer.getInt(12);
+            int root = buffer.getInt(16);
+            if (buffer.limit() < DawgBuilder.HEADER_BYTES + (long) edgeCount * DawgBuilder.EDGE_BYTES) {
+                throw new IOException("Dicionário compilado truncado: " + file);
+            }
+
+            // o mapeamento continua valido depois de fechar o canal
+            ByteBuffer edges = buffer.slice(DawgBuilder.HEADER_BYTES, edgeCount * DawgBuilder.EDGE_BYTES);
+            return new MappedDawg(edges, wordCount, edgeCount, root);
+        }
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    // a palavra (já sem acento e minuscula) existe em alguma grafia?
+    public boolean contains(String foldedWord) {
+        if (root < 0 || foldedWord.isEmpty()) return false;
+        return find(root, foldedWord, 0, new StringBuilder(), null);
+    }
+
+    // todas as grafias originais que ficam iguais a :foldedWord sem acento
+    public List<String> originals(String foldedWord) {
+        List<String> originals = new ArrayList<>(1);
+        if (root >= 0 && !foldedWord.isEmpty()) find(root, foldedWord, 0, new StringBuilder(), originals);
+        return originals;
+    }
+
+    // palavras com distancia de Levenshtein (sem acento) até :maxDistance de :foldedWord
+    // percorre o automato calculando uma linha da matriz por letra e corta os ramos que já passaram do limite
+    public List<Match> search(String foldedWord, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root < 0) return matches;
+
+        int[] firstRow = new int[foldedWord.length() + 1];
+        for (int j = 0; j < firstRow.length; j++) firstRow[j] = j;
+
+        new Search(foldedWord, maxDistance, matches).walk(root, 0, 0, firstRow);
+        return matches;
+    }
+
+    private boolean find(int node, String folded, int position, StringBuilder word, List<String> out) {
+        boolean found = false;
+
+        for (int edge = node; ; edge++) {
+            char label = label(edge);
+            char folding = fold(label);
+            int flags = flags(edge);
+
+            // marca de acento isolada não consome letra da palavra pesquisada
+            int next = folding == 0 ? position : position + 1;
+            if (folding == 0 || (position < folded.length() && folding == folded.charAt(position))) {
+                word.append(label);
+
+                if (next == folded.length() && (flags & DawgBuilder.FINAL) != 0) {
+                    if (out == null) return true;
+                    out.add(word.toString());
+                    found = true;
+                }
+
+                int child = child(edge);
+                if (child >= 0 && find(child, folded, next, word, out)) {
+                    if (out == null) return true;
+                    found = true;
+                }
+
+                word.setLength(word.length() - 1);
+            }
+
+            if ((flags & DawgBuilder.LAST) != 0) break;
+        }
+
+        return found;
+    }
+
+    private final class Search {
+        final String query;
+        final int maxDistance;
+        final List<Match> matches;
+        char[] word = new char[32];
+        int[][] rows = new int[32][];
+
+        Search(String query, int maxDistance, List<Match> matches) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.matches = matches;
+        }
+
+        void walk(int node, int depth, int foldedLength, int[] previous) {
+            if (depth == word.length) {
+                word = Arrays.copyOf(word, depth * 2);
+                rows = Arrays.copyOf(rows, depth * 2);
+            }
+            if (rows[depth] == null) rows[depth] = new int[previous.length];
+
+            for (int edge = node; ; edge++) {
+                char label = label(edge);
+                char folding = fold(label);
+                int flags = flags(edge);
+                word[depth] = label;
+
+                int[] row = previous;
+                int length = foldedLength;
+                int rowMin = min(previous);
+
+                if (folding != 0) {
+                    // proxima linha da matriz de Levenshtein para a letra :folding
+                    row = rows[depth];
+                    row[0] = previous[0] + 1;
+                    rowMin = row[0];
+                    for (int j = 1; j < row.length; j++) {
+                        int cost = query.charAt(j - 1) == folding ? 0 : 1;
+                        row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                        if (row[j] < rowMin) rowMin = row[j];
+                    }
+                    length++;
+                }
+
+                int distance = row[row.length - 1];
+                if ((flags & DawgBuilder.FINAL) != 0 && distance <= maxDistance) {
+                    matches.add(new Match(new String(word, 0, depth + 1), length, distance));
+                }
+
+                int child = child(edge);
+                if (child >= 0 && rowMin <= maxDistance) {
+                    walk(child, depth + 1, length, row);
+                }
+
+                if ((flags & DawgBuilder.LAST) != 0) break;
+            }
+        }
+
+        private int min(int[] row) {
+            int min = Integer.MAX_VALUE;
+            for (int value : row) min = Math.min(min, value);
+            return min;
+        }
+    }
+
+    private char label(int edge) {
+        return edges.getChar(edge * DawgBuilder.EDGE_BYTES);
+    }
+
+    private int flags(int edge) {
+        return edges.getShort(edge * DawgBuilder.EDGE_BYTES + 2);
+    }
+
+    private int child(int edge) {
+        return edges.getInt(edge * DawgBuilder.EDGE_BYTES + 4);
+    }
+
+    static char fold(char c) {
+        return c < FOLD.length ? FOLD[c] : foldSlow(c);
+    }
+
+    // mesma regra de OcrDictionary.fold, letra a letra
+    private static char foldSlow(char c) {
+        int type = Character.getType(c);
+        if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK || type == Character.COMBINING_SPACING_MARK) {
+            return 0;
+        }
+
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposed.charAt(0));
+    }
+}
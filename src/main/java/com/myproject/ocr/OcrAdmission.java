@@ -0,0 +1,173 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// controle de admissão: cada pedido reserva os pixels que pode ter renderizados ao mesmo tempo (rasters, Mats do
+// OpenCV e buffers do Tesseract crescem com eles) dentro de um orçamento global de ocr.admission.max-pixels
+// sem espaço o pedido espera na fila, em ordem de chegada; fila cheia ou espera longa demais = SaturatedException (429)
+@Component
+public class OcrAdmission implements MeterBinder {
+
+    // serviço saturado, tente de novo depois de :retryAfterSeconds
+    public static class SaturatedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterSeconds;
+
+        public SaturatedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    // pixels reservados, devolvidos no close()
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @Value("${ocr.admission.enabled:true}")
+    private boolean enabled;
+
+    // ~8,4 milhões de pixels por pagina A4/carta em 300 DPI
+    @Value("${ocr.admission.max-pixels:400000000}")
+    private long maxPixels;
+
+    // pedidos HTTP esperando por espaço; acima disso a resposta é 429 na hora
+    @Value("${ocr.admission.max-queue:16}")
+    private int maxQueue;
+
+    @Value("${ocr.admission.max-wait-ms:10000}")
+    private long maxWaitMs;
+
+    @Value("${ocr.admission.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // ordem de chegada: só o primeiro da fila pode entrar, um pedido grande não fica para trás para sempre
+    private final ArrayDeque<Object> waiting = new ArrayDeque<>();
+    // só os pedidos HTTP da fila: jobs e lotes esperando não contam para o ocr.admission.max-queue
+    private int boundedWaiting;
+    private long usedPixels;
+
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private Timer waitTimer;
+
+    // pedidos HTTP: espera no maximo ocr.admission.max-wait-ms, com no maximo ocr.admission.max-queue na fila
+    public Permit admit(long pixels) throws InterruptedException {
+        return acquire(pixels, true);
+    }
+
+    // jobs e lotes já passaram pela fila deles: esperam o tempo que for preciso
+    public Permit await(long pixels) throws InterruptedException {
+        return acquire(pixels, false);
+    }
+
+    private Permit acquire(long pixels, boolean bounded) throws InterruptedException {
+        if (!enabled) return () -> {
+        };
+
+        // um pedido maior que o orçamento inteiro roda sozinho
+        long cost = Math.max(0, Math.min(pixels, maxPixels));
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && usedPixels + cost <= maxPixels) {
+                usedPixels += cost;
+                return permit(cost);
+            }
+            if (bounded && boundedWaiting >= maxQueue) {
+                queueFull.increment();
+                throw new SaturatedException("Serviço ocupado, fila de espera cheia", retryAfterSeconds);
+            }
+
+            Object ticket = new Object();
+            waiting.addLast(ticket);
+            if (bounded) boundedWaiting++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (waiting.peekFirst() != ticket || usedPixels + cost > maxPixels) {
+                    if (!bounded) {
+                        changed.await();
+                    } else if (nanos <= 0) {
+                        timeouts.increment();
+                        throw new SaturatedException("Serviço ocupado, tempo de espera esgotado", retryAfterSeconds);
+                    } else {
+                        nanos = changed.awaitNanos(nanos);
+                    }
+                }
+                usedPixels += cost;
+                return permit(cost);
+            } finally {
+                waiting.remove(ticket);
+                if (bounded) boundedWaiting--;
+                // o proximo da fila pode caber agora
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+            if (waitTimer != null) waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Permit permit(long cost) {
+        return new Permit() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                lock.lock();
+                try {
+                    if (closed) return;
+                    closed = true;
+                    usedPixels -= cost;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    // fila, ocupação do orçamento e recusas no /actuator/prometheus
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ocr.admission.queue", this, a -> a.locked(() -> a.waiting.size())).register(registry);
+        Gauge.builder("ocr.admission.pixels.used", this, a -> a.locked(() -> a.usedPixels)).register(registry);
+        Gauge.builder("ocr.admission.pixels.max", this, a -> a.maxPixels).register(registry);
+        FunctionCounter.builder("ocr.admission.rejections", queueFull, LongAdder::sum).tag("reason", "queue_full").register(registry);
+        FunctionCounter.builder("ocr.admission.rejections", timeouts, LongAdder::sum).tag("reason", "timeout").register(registry);
+        waitTimer = Timer.builder("ocr.admission.wait")
+                .description("Tempo de espera por espaço no orçamento de pixels")
+                .register(registry);
+    }
+
+    private double locked(LongSupplier value) {
+        lock.lock();
+        try {
+            return value.getAsLong();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
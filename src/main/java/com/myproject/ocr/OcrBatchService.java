@@ -0,0 +1,298 @@
+package com.myproject.ocr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// lote de PDFs em um pedido só: ocr.batch.concurrency documentos por vez (as paginas de cada um no ocrExecutor)
+// e os resultados saem no stream da resposta conforme cada documento termina (ZIP com os pdfs ou NDJSON com o texto)
+@Service
+public class OcrBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrBatchService.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public enum Format {
+        // um pdf por documento (ou por pagina com saida PAGES), mais um .erro.txt para os que falharam
+        ZIP,
+        // uma linha JSON por documento com o texto de cada pagina
+        NDJSON
+    }
+
+    @Autowired
+    private OcrService ocrService;
+
+    @Autowired
+    private OcrStorage storage;
+
+    @Autowired
+    @Qualifier("batchExecutor")
+    private ExecutorService batchExecutor;
+
+    // documentos de um mesmo lote processados ao mesmo tempo; o proximo só começa depois que um resultado é escrito
+    @Value("${ocr.batch.concurrency:2}")
+    private int concurrency;
+
+    @Value("${ocr.batch.max-files:500}")
+    private int maxFiles;
+
+    // arquivos do lote já copiados para o disco (o upload some quando a requisição termina)
+    public record Batch(List<Document> documents) {
+    }
+
+    // :index é a posição do arquivo no pedido, :request as opções dele (paginas, forcarOcr, saida...)
+    public record Document(int index, String name, Path upload, OcrRequest request) {
+    }
+
+    // resultado de um documento, :texts só no NDJSON
+    private record Result(Document document, List<PageResult> pages, Map<Integer, String> texts, String error) {
+    }
+
+    // :requests na mesma ordem de :files; sem entrada ou sem paginas processa o documento inteiro
+    // IllegalArgumentException com o lote vazio, grande demais ou com mais opções do que arquivos
+    public Batch prepare(List<MultipartFile> files, List<OcrRequest> requests) throws IOException {
+        if (files == null || files.isEmpty()) throw new IllegalArgumentException("Envie ao menos um arquivo");
+        if (files.size() > maxFiles) throw new IllegalArgumentException("Máximo de " + maxFiles + " arquivos por lote");
+        if (requests.size() > files.size()) {
+            throw new IllegalArgumentException("Há mais entradas em data (" + requests.size() + ") do que arquivos (" + files.size() + ")");
+        }
+
+        List<Document> documents = new ArrayList<>(files.size());
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                Path upload = Files.createTempFile("ocr-batch-", ".pdf");
+                documents.add(new Document(i, files.get(i).getOriginalFilename(), upload,
+                        i < requests.size() && requests.get(i) != null ? requests.get(i) : new OcrRequest()));
+                files.get(i).transferTo(upload);
+            }
+        } catch (IOException e) {
+            delete(documents);
+            throw e;
+        }
+        return new Batch(documents);
+    }
+
+    // processa o lote escrevendo em :out; se o cliente desconectar (erro na escrita) os documentos restantes são cancelados
+    public void write(Batch batch, Format format, OutputStream out) throws IOException {
+        List<Document> documents = batch.documents();
+        CompletionService<Result> completion = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<Result>> running = new ArrayList<>();
+        // documentos cujo upload já tem dono: o process() que começou ou o finally abaixo (o primeiro a marcar apaga)
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        int next = 0;
+        long start = System.nanoTime();
+
+        try {
+            for (; next < Math.min(Math.max(concurrency, 1), documents.size()); next++) {
+                Document document = documents.get(next);
+                running.add(completion.submit(() -> process(document, format, claimed)));
+            }
+
+            BatchWriter writer = format == Format.ZIP ? new ZipWriter(out) : new NdjsonWriter(out);
+            for (int done = 0; done < documents.size(); done++) {
+                Result result = completion.take().get();
+                if (next < documents.size()) {
+                    Document document = documents.get(next++);
+                    running.add(completion.submit(() -> process(document, format, claimed)));
+                }
+                writer.write(result);
+                out.flush();
+            }
+            writer.finish();
+            log.info("Lote de {} documentos processado em {} ms", documents.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lote interrompido");
+        } catch (ExecutionException e) {
+            // process() não lança, só chega aqui com erro de programação
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<Result> future : running) future.cancel(true);
+            // os que não chegaram a rodar o process() (nem enviados, ou cancelados ainda na fila do batchExecutor);
+            // os que rodaram apagam o proprio upload
+            for (Document document : documents) {
+                if (claimed.add(document.index())) delete(List.of(document));
+            }
+        }
+    }
+
+    // roda na thread do batchExecutor; render/emit aqui, reconhecimento no ocrExecutor
+    @SuppressWarnings("try")
+    private Result process(Document document, Format format, Set<Integer> claimed) {
+        // o lote terminou antes deste documento começar: o upload já foi apagado
+        if (!claimed.add(document.index())) return new Result(document, List.of(), Map.of(), "Lote cancelado");
+
+        Map<Integer, String> texts = new LinkedHashMap<>();
+        try {
+            MessageDigest digest = OcrCache.newDigest();
+            PDDocument pdf;
+            try (InputStream in = Files.newInputStream(document.upload())) {
+                pdf = ocrService.loadDocument(in, digest);
+            }
+
+            OcrRequest request = document.request();
+            ArrayList<Integer> paginas = new ArrayList<>();
+            if (request.getPaginas() == null || request.getPaginas().isEmpty()) {
+                for (int i = 1; i <= pdf.getNumberOfPages(); i++) paginas.add(i);
+            } else {
+                // pagina repetida sairia duas vezes no zip (entrada duplicada quebra o stream)
+                paginas.addAll(new LinkedHashSet<>(request.getPaginas()));
+            }
+            // no lote o padrão é um pdf por documento
+            OutputMode saida = request.getSaida() == null ? OutputMode.DOCUMENT : request.getSaida();
+
+            Data dados = new Data(pdf, paginas, request.getParalelismo(), request.isForcarOcr(), OcrCache.hex(digest), saida);
+            List<PageResult> pages;
+            try (OcrAdmission.Permit permit = ocrService.admit(dados, true)) {
+                pages = ocrService.getOcr(dados, new OcrService.PageListener() {
+                    @Override
+                    public void text(int page, String text) {
+                        if (format == Format.NDJSON) texts.put(page, text);
+                    }
+
+                    @Override
+                    public void page(PageResult result) {
+                    }
+                });
+            }
+            return new Result(document, pages, texts, null);
+        } catch (Exception e) {
+            log.warn("Falha no documento {} ({}) do lote: {}", document.index(), document.name(), e.getMessage());
+            return new Result(document, List.of(), texts, e.getMessage() == null ? e.toString() : e.getMessage());
+        } finally {
+            delete(List.of(document));
+        }
+    }
+
+    private interface BatchWriter {
+        void write(Result result) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // entradas "001_nome.pdf" (ou "001_nome/pagina_N.pdf" com saida PAGES), na ordem em que os documentos terminam
+    private class ZipWriter implements BatchWriter {
+
+        private final ZipOutputStream zip;
+
+        ZipWriter(OutputStream out) {
+            zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            // pdf já vem com os streams comprimidos, comprimir de novo só gasta CPU
+            zip.setLevel(Deflater.BEST_SPEED);
+        }
+
+        @Override
+        public void write(Result result) throws IOException {
+            String base = String.format("%03d_%s", result.document().index() + 1, baseName(result.document().name()));
+            if (result.error() != null) {
+                zip.putNextEntry(new ZipEntry(base + ".erro.txt"));
+                zip.write(result.error().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                return;
+            }
+
+            boolean perPage = result.document().request().getSaida() == OutputMode.PAGES;
+            Set<String> links = new LinkedHashSet<>();
+            for (PageResult page : result.pages()) {
+                if (!links.add(page.link())) continue;
+                Path file = storage.fromLink(page.link()).orElse(null);
+                if (file == null) continue;
+
+                zip.putNextEntry(new ZipEntry(perPage ? base + "/pagina_" + page.page() + ".pdf" : base + ".pdf"));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            zip.finish();
+        }
+    }
+
+    // {"index":0,"file":"a.pdf","pages":[{"page":1,"method":"OCR","dpi":300,"link":"...","text":"..."}],"error":null}
+    private static class NdjsonWriter implements BatchWriter {
+
+        private final OutputStream out;
+
+        NdjsonWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(Result result) throws IOException {
+            List<Map<String, Object>> pages = new ArrayList<>();
+            for (PageResult page : result.pages()) {
+                Map<String, Object> info = new LinkedHashMap<>();
+                info.put("page", page.page());
+                info.put("method", page.method());
+                info.put("dpi", page.dpi());
+                info.put("link", page.link());
+                info.put("text", result.texts().get(page.page()));
+                pages.add(info);
+            }
+
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("index", result.document().index());
+            line.put("file", result.document().name());
+            line.put("pages", pages);
+            line.put("error", result.error());
+            out.write(JSON.writeValueAsBytes(line));
+            out.write('\n');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    // nome do arquivo enviado sem pasta, extensão e caracteres estranhos
+    private static String baseName(String name) {
+        if (name == null || name.isBlank()) return "documento";
+        String base = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1)
+                .replaceFirst("(?i)\\.pdf$", "")
+                .replaceAll("[^\\p{L}\\p{N}._-]+", "_");
+        return base.isEmpty() ? "documento" : base;
+    }
+
+    private static void delete(List<Document> documents) {
+        for (Document document : documents) {
+            try {
+                Files.deleteIfExists(document.upload());
+            } catch (IOException e) {
+                log.warn("Falha ao remover o upload {}: {}", document.upload(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// cache dos resultados de OCR endereçado pelo conteudo (sha-256), em dois niveis:
+// 1. memoria: LRU limitado pelo tamanho dos textos
+// 2. disco: um arquivo por entrada em ocr.cache.dir, removido por idade (ttl) ou quando passa do tamanho maximo
+// as entradas ficam agrupadas (ex.: pelo hash do PDF) para poder invalidar um documento inteiro
+@Component
+public class OcrCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrCache.class);
+
+    // grupo das entradas que dependem só do texto (cleanText), limpo quando o dicionario muda
+    public static final String TEXT_GROUP = "text";
+
+    private static final Pattern GROUP = Pattern.compile("[a-z0-9-]{1,64}");
+
+    // arquivos .tmp de um put interrompido (processo morto entre a escrita e o move) saem depois disso
+    private static final long TMP_MAX_AGE_MS = TimeUnit.HOURS.toMillis(1);
+
+    @Value("${ocr.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ocr.cache.memory.max-bytes:67108864}")
+    private long memoryMaxBytes;
+
+    @Value("${ocr.cache.dir:${java.io.tmpdir}/ocr-cache}")
+    private String cacheDir;
+
+    @Value("${ocr.cache.disk.max-bytes:1073741824}")
+    private long diskMaxBytes;
+
+    @Value("${ocr.cache.disk.ttl-hours:168}")
+    private long diskTtlHours;
+
+    private Path dir;
+
+    // LRU em ordem de acesso, protegido pelo proprio objeto
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        dir = Path.of(cacheDir);
+        if (!enabled) return;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            // sem disco o cache continua só em memoria
+            log.warn("Cache OCR em disco indisponível ({}): {}", dir, e.getMessage());
+        }
+    }
+
+    // busca primeiro na memoria, depois no disco (o que vem do disco volta para a memoria)
+    public Optional<String> get(String group, String key) {
+        if (!enabled) return Optional.empty();
+
+        String id = id(group, key);
+        synchronized (memory) {
+            String value = memory.get(id);
+            if (value != null) {
+                memoryHits.increment();
+                return Optional.of(value);
+            }
+        }
+
+        Path file = file(id);
+        try {
+            if (expired(Files.getLastModifiedTime(file))) {
+                Files.deleteIfExists(file);
+            } else {
+                String value = Files.readString(file, StandardCharsets.UTF_8);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                diskHits.increment();
+                remember(id, value);
+                return Optional.of(value);
+            }
+        } catch (NoSuchFileException e) {
+            // não está no disco
+        } catch (IOException e) {
+            log.warn("Falha ao ler o cache OCR {}: {}", file, e.getMessage());
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    // grava nos dois niveis; falha no disco não impede a resposta
+    public void put(String group, String key, String value) {
+        if (!enabled) return;
+
+        String id = id(group, key);
+        puts.increment();
+        remember(id, value);
+
+        Path file = file(id);
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.writeString(tmp, value, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Falha ao gravar o cache OCR {}: {}", file, e.getMessage());
+            if (tmp != null) delete(tmp);
+        }
+    }
+
+    // remove todas as entradas de um grupo (ex.: hash de um documento)
+    public int invalidate(String group) {
+        validateGroup(group);
+
+        // a mesma entrada pode estar nos dois niveis, conta uma vez só
+        Set<String> removed = new HashSet<>();
+        synchronized (memory) {
+            Iterator<Map.Entry<String, String>> it = memory.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, String> entry = it.next();
+                if (entry.getKey().startsWith(group + "/")) {
+                    memoryBytes -= weight(entry.getValue());
+                    it.remove();
+                    removed.add(entry.getKey());
+                }
+            }
+        }
+
+        for (Path file : files(dir.resolve(group))) {
+            if (delete(file)) removed.add(group + "/" + file.getFileName());
+        }
+        return removed.size();
+    }
+
+    // limpa o cache inteiro
+    public int invalidateAll() {
+        Set<String> removed;
+        synchronized (memory) {
+            removed = new HashSet<>(memory.keySet());
+            memory.clear();
+            memoryBytes = 0;
+        }
+
+        for (Path file : files(dir)) {
+            if (delete(file)) removed.add(dir.relativize(file).toString().replace('\\', '/'));
+        }
+        return removed.size();
+    }
+
+    // resultados do cleanText dependem do dicionario
+    @EventListener
+    void onDictionaryReloaded(OcrDictionary.ReloadedEvent event) {
+        int removed = invalidate(TEXT_GROUP);
+        log.info("Cache de correções limpo após recarregar o dicionário ({} entradas)", removed);
+    }
+
+    // remove do disco as entradas vencidas e, se ainda passar do limite, as menos usadas
+    // (mais os .tmp esquecidos por um put que não terminou)
+    @Scheduled(fixedDelayString = "${ocr.cache.disk.sweep-interval-ms:600000}")
+    void sweep() {
+        if (!enabled) return;
+
+        for (Path tmp : tempFiles(dir)) {
+            try {
+                if (System.currentTimeMillis() - Files.getLastModifiedTime(tmp).toMillis() > TMP_MAX_AGE_MS) delete(tmp);
+            } catch (IOException e) {
+                // o put terminou (move) durante a varredura
+            }
+        }
+
+        record Entry(Path file, long size, long lastModified) {
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        for (Path file : files(dir)) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (expired(modified)) {
+                    if (delete(file)) evictions.increment();
+                    continue;
+                }
+                long size = Files.size(file);
+                entries.add(new Entry(file, size, modified.toMillis()));
+                total += size;
+            } catch (IOException e) {
+                // removido por outra thread durante a varredura
+            }
+        }
+
+        if (total <= diskMaxBytes) return;
+
+        entries.sort(Comparator.comparingLong(Entry::lastModified));
+        for (Entry entry : entries) {
+            if (total <= diskMaxBytes) break;
+            if (delete(entry.file())) {
+                total -= entry.size();
+                evictions.increment();
+            }
+        }
+    }
+
+    // metricas do cache no /actuator/prometheus (ocupação do disco só no GET /ocr/cache, exige varrer a pasta)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ocr.cache.hits", memoryHits, LongAdder::sum).tag("tier", "memory").register(registry);
+        FunctionCounter.builder("ocr.cache.hits", diskHits, LongAdder::sum).tag("tier", "disk").register(registry);
+        FunctionCounter.builder("ocr.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("ocr.cache.puts", puts, LongAdder::sum).register(registry);
+        FunctionCounter.builder("ocr.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("ocr.cache.memory.entries", memory, m -> {
+            synchronized (m) {
+                return m.size();
+            }
+        }).register(registry);
+        Gauge.builder("ocr.cache.memory.bytes", this, c -> {
+            synchronized (c.memory) {
+                return c.memoryBytes;
+            }
+        }).baseUnit("bytes").register(registry);
+        Gauge.builder("ocr.cache.hit.ratio", this, OcrCache::hitRatio).register(registry);
+    }
+
+    private double hitRatio() {
+        long hits = memoryHits.sum() + diskHits.sum();
+        long lookups = hits + misses.sum();
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    public CacheStats stats() {
+        int memoryEntries;
+        long memoryUsed;
+        synchronized (memory) {
+            memoryEntries = memory.size();
+            memoryUsed = memoryBytes;
+        }
+
+        List<Path> files = files(dir);
+        long diskBytes = 0;
+        for (Path file : files) {
+            try {
+                diskBytes += Files.size(file);
+            } catch (IOException e) {
+                // removido durante a contagem
+            }
+        }
+
+        return new CacheStats(enabled, memoryEntries, memoryUsed, memoryMaxBytes, files.size(), diskBytes, diskMaxBytes,
+                memoryHits.sum(), diskHits.sum(), misses.sum(), puts.sum(), evictions.sum(), hitRatio());
+    }
+
+    // sha-256 em hexadecimal (chave das entradas e hash dos PDFs enviados)
+    public static String sha256(String value) {
+        MessageDigest digest = newDigest();
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        return hex(digest);
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void remember(String id, String value) {
+        long weight = weight(value);
+        if (weight > memoryMaxBytes) return;
+
+        synchronized (memory) {
+            String previous = memory.put(id, value);
+            if (previous != null) memoryBytes -= weight(previous);
+            memoryBytes += weight;
+
+            // descarta as menos usadas até caber no limite
+            Iterator<String> eldest = memory.values().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes -= weight(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private String id(String group, String key) {
+        validateGroup(group);
+        return group + "/" + sha256(key);
+    }
+
+    private Path file(String id) {
+        return dir.resolve(id);
+    }
+
+    private boolean expired(FileTime modified) {
+        return System.currentTimeMillis() - modified.toMillis() > TimeUnit.HOURS.toMillis(diskTtlHours);
+    }
+
+    private static void validateGroup(String group) {
+        if (group == null || !GROUP.matcher(group).matches()) {
+            throw new IllegalArgumentException("Grupo de cache inválido: " + group);
+        }
+    }
+
+    // tamanho aproximado no heap (2 bytes por char)
+    private static long weight(String value) {
+        return 2L * value.length();
+    }
+
+    private static List<Path> files(Path root) {
+        if (!Files.isDirectory(root)) return List.of();
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().endsWith(".tmp"))
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            return List.of();
+        }
+    }
+
+    private static List<Path> tempFiles(Path root) {
+        if (!Files.isDirectory(root)) return List.of();
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(f -> f.getFileName().toString().endsWith(".tmp"))
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            return List.of();
+        }
+    }
+
+    private static boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.myproject.ocr;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class OcrConfig {
+
+    // threads que processam as paginas, por padrão uma por motor OCR do pool
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ocrExecutor(
+            @Value("${ocr.parallelism:${ocr.pool.max-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}}") int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "ocr-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // threads que reconhecem os blocos de uma mesma pagina (ocr.layout.enabled), limitadas pelos motores do pool
+    // separadas do ocrExecutor: a pagina espera pelos blocos sem ocupar as threads que ela mesma precisa
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService regionExecutor(
+            @Value("${ocr.pool.max-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int engines) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(engines, r -> {
+            Thread thread = new Thread(r, "ocr-region-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // threads dos lotes (POST /ocr/batch), um documento por thread; cada lote limita quantos documentos tem na fila
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService batchExecutor(@Value("${ocr.batch.threads:4}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ocr-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // envio dos eventos SSE dos jobs, fora da thread do job: uma virtual thread por ouvinte com eventos pendentes,
+    // um cliente parado prende só a sua
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService sseExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ocr-sse-", 1).factory());
+    }
+
+    // threads dos jobs assincronos (um documento por thread), com fila limitada: cheia, o envio é recusado
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor(
+            @Value("${ocr.jobs.concurrency:2}") int concurrency,
+            @Value("${ocr.jobs.queue-capacity:16}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "ocr-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
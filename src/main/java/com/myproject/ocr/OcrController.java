@@ -1,24 +1,33 @@
 package com.myproject.ocr;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.core.io.Resource;
-
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/ocr")
@@ -27,9 +36,28 @@ public class OcrController {
     @Autowired
     private OcrService ocrService;
 
+    @Autowired
+    private TesseractPool tesseractPool;
+
+    @Autowired
+    private OcrCache ocrCache;
+
+    @Autowired
+    private OcrJobService ocrJobService;
+
+    @Autowired
+    private OcrStorage ocrStorage;
 
+    @Autowired
+    private OcrBatchService ocrBatchService;
+
+    @Autowired
+    private OcrTextIndex ocrTextIndex;
+
+
+    @SuppressWarnings("try")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<List<String>> getFileOcr(
+    public ResponseEntity<List<PageResult>> getFileOcr(
             @RequestPart("file") MultipartFile file,
             @RequestParam("data") String dataJson) throws IOException {
 
@@ -37,40 +65,223 @@ public class OcrController {
         ObjectMapper mapper = new ObjectMapper();
         OcrRequest data = mapper.readValue(dataJson, OcrRequest.class);
 
-        PDDocument document = PDDocument.load(file.getInputStream());
-        Data dados = new Data(document, new ArrayList<>(data.getPaginas()));
+        // o hash do PDF é calculado durante a leitura e identifica o documento no cache
+        MessageDigest digest = OcrCache.newDigest();
+        PDDocument document = ocrService.loadDocument(file.getInputStream(), digest);
+        Data dados = new Data(document, new ArrayList<>(data.getPaginas()), data.getParalelismo(), data.isForcarOcr(),
+                OcrCache.hex(digest), data.getSaida());
 
-        return ocrService.getOcr(dados.document(), dados.paginas());
+        // sem vaga: 429 (handleSaturated)
+        try (OcrAdmission.Permit permit = ocrService.admit(dados, false)) {
+            return ocrService.getOcr(dados);
+        }
     }
 
-    @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> downloadPdf(@PathVariable String filename) throws IOException {
-        Path path = Paths.get("src/main/resources/static/ocr").resolve(filename).normalize();
+    // serviço saturado (OcrAdmission): 429 com Retry-After
+    @ExceptionHandler(OcrAdmission.SaturatedException.class)
+    public ResponseEntity<Map<String, Object>> handleSaturated(OcrAdmission.SaturatedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // versão assincrona do POST /ocr: devolve o id do job na hora (202), o progresso sai em /ocr/jobs/{id}/events
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitJob(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam("data") String dataJson) throws IOException {
 
-        if (!Files.exists(path)) {
-            return ResponseEntity.notFound().build();
+        OcrRequest data = new ObjectMapper().readValue(dataJson, OcrRequest.class);
+
+        try {
+            OcrJob job = ocrJobService.submit(file, data);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/ocr/jobs/" + job.getId()))
+                    .body(job.status());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Fila de jobs cheia, tente novamente mais tarde"));
         }
+    }
+
+    // varios PDFs em um pedido: :data é uma lista de opções na ordem dos arquivos (ex.: [{"paginas":[1,2]},{}])
+    // a resposta sai em stream conforme cada documento termina, ZIP com os pdfs ou NDJSON com o texto das paginas
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> batch(
+            @RequestPart("files") List<MultipartFile> files,
+            @RequestParam(value = "data", required = false) String dataJson,
+            @RequestParam(value = "formato", defaultValue = "ZIP") OcrBatchService.Format format) throws IOException {
 
-        Resource resource = new UrlResource(path.toUri());
+        List<OcrRequest> requests = dataJson == null || dataJson.isBlank() ? List.of()
+                : new ObjectMapper().readValue(dataJson, new TypeReference<List<OcrRequest>>() {});
 
+        OcrBatchService.Batch batch;
+        try {
+            batch = ocrBatchService.prepare(files, requests);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> ocrBatchService.write(batch, format, out);
+        if (format == OcrBatchService.Format.NDJSON) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
         return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ocr_lote.zip\"")
+                .body(body);
+    }
+
+    // estado do job e links das paginas já prontas
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<JobStatus> getJob(@PathVariable String id) {
+        return ResponseEntity.of(ocrJobService.find(id).map(OcrJob::status));
+    }
+
+    // stream SSE: evento "status" (inicio, total de paginas, fim) e um evento "page" por pagina, na ordem
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id) {
+        return ResponseEntity.of(ocrJobService.subscribe(id));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<JobStatus> cancelJob(@PathVariable String id) {
+        return ResponseEntity.of(ocrJobService.cancel(id));
+    }
+
+    // download dos pdfs gerados, aceita um intervalo (Range: bytes=inicio-fim) para retomar downloads grandes
+    @GetMapping("/{filename:.+}")
+    public void downloadPdf(@PathVariable String filename,
+                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = ocrStorage.find(filename).orElse(null);
+        if (path == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long length = Files.size(path);
+        long start = 0;
+        long end = length - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // varios intervalos (multipart/byteranges) não são suportados, devolve o arquivo inteiro
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    // o getRangeStart não compara o inicio com o tamanho do arquivo (ex.: bytes=10-20 em 10 bytes)
+                    if (start >= length || start > end) throw new IllegalArgumentException("Intervalo fora do arquivo: " + range);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + path.getFileName() + "\"");
+        response.setContentLengthLong(end - start + 1);
+        sendFile(path, start, end, request, response);
+    }
+
+    // zero copia: com sendfile o Tomcat passa o arquivo do disco para o socket sem passar pelo heap
+    // sem sendfile (ex.: conector NIO2, TLS), FileChannel.transferTo direto no stream da resposta
+    private static void sendFile(Path path, long start, long end, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", path.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end - position + 1, out);
+            }
+        }
+    }
+
+    // busca nos textos já reconhecidos (sem acento, sem diferenciar maiusculas): paginas com mais termos primeiro
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 200) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit deve estar entre 1 e 200"));
+        }
+        return ResponseEntity.ok(ocrTextIndex.search(query, limit));
+    }
+
+    // metricas do pool de motores OCR (emprestados, ociosos, tempo de espera)
+    @GetMapping("/pool")
+    public ResponseEntity<List<PoolStats>> getPoolStats() {
+        return ResponseEntity.ok(tesseractPool.stats());
+    }
+
+    // metricas do cache de resultados (acertos na memoria/disco, falhas, ocupação)
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(ocrCache.stats());
+    }
+
+    // limpa o cache inteiro
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> clearCache() {
+        return ResponseEntity.ok(Map.of("removed", ocrCache.invalidateAll()));
+    }
+
+    // limpa as entradas de um documento (:document = sha-256 do PDF, ex.: saida do sha256sum)
+    // "text" limpa as correções guardadas pelo /corrrect
+    @DeleteMapping("/cache/{document}")
+    public ResponseEntity<Map<String, Object>> invalidateCache(@PathVariable String document) {
+        try {
+            return ResponseEntity.ok(Map.of("removed", ocrCache.invalidate(document.toLowerCase())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping("/corrrect")
-    public ResponseEntity<Map<String, Object>> getSuggestions(@RequestPart("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> getSuggestions(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(value = "forcarOcr", defaultValue = "false") boolean forcarOcr) {
         try {
-            // 1. Extrair texto do PDF (ou da imagem dentro do PDF) - adapte conforme seu método
-            String extractedText = ocrService.toStringOf(file); // ou método que você tiver para extrair texto do MultipartFile
+            // 1. Extrair texto do PDF (camada de texto quando existir, senão OCR)
+            List<PageText> pages = ocrService.extractPages(file, forcarOcr);
+            StringBuilder extractedText = new StringBuilder();
+            List<OcrWord> words = new ArrayList<>();
+            List<Map<String, Object>> methods = new ArrayList<>();
+            for (PageText page : pages) {
+                extractedText.append(page.text()).append("\n\n");
+                words.addAll(page.words());
+                // posição e confiança de cada palavra reconhecida pelo OCR, e a resolução usada (null na camada de texto)
+                Map<String, Object> info = new LinkedHashMap<>();
+                info.put("page", page.page());
+                info.put("method", page.method());
+                info.put("dpi", page.dpi());
+                info.put("words", page.words());
+                methods.add(info);
+            }
 
-            // 2. Processar o texto extraído para gerar sugestões/correções
-            Map<String, Object> result = ocrService.cleanText(extractedText);
+            // 2. Processar o texto extraído para gerar sugestões/correções (só nas palavras de baixa confiança)
+            Map<String, Object> result = ocrService.cleanText(extractedText.toString(), words);
+            result.put("pages", methods);
 
             // 3. Retorna o resultado como JSON
             return ResponseEntity.ok(result);
 
+        } catch (OcrAdmission.SaturatedException e) {
+            throw e;
         } catch (Exception e) {
             // Retorna erro com mensagem no corpo
             Map<String, Object> error = new HashMap<>();
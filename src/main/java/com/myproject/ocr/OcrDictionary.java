@@ -0,0 +1,129 @@
+package com.myproject.ocr;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// dicionario carregado uma unica vez, compilado em um DAWG mapeado em memoria (fora do heap)
+// as buscas são feitas pela forma sem acento
+@Component
+public class OcrDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrDictionary.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+
+    @Value("${ocr.dictionary.location:classpath:static/ocr/br-utf8.txt}")
+    private Resource location;
+
+    // dicionario já compilado pelo build (mvn -Pdictionary), se vazio compila na subida
+    @Value("${ocr.dictionary.compiled:}")
+    private String compiled;
+
+    // onde ficam os dicionarios compilados na subida
+    @Value("${ocr.dictionary.compiled-dir:${java.io.tmpdir}/ocr-dictionary}")
+    private String compiledDir;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private volatile Snapshot snapshot = new Snapshot(null, -1);
+
+    private record Snapshot(MappedDawg dawg, long lastModified) {
+    }
+
+    // evento publicado quando o arquivo do dicionario muda e é recarregado
+    public record ReloadedEvent(int size) {
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            long start = System.currentTimeMillis();
+            snapshot = read();
+            log.info("Dicionário carregado: {} palavras em {} ms", size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Não foi possível carregar o dicionário {}: {}", location, e.getMessage());
+        }
+    }
+
+    // recarrega o dicionario se o arquivo foi alterado (só funciona fora do jar, ex.: file:/opt/ocr/br-utf8.txt)
+    @Scheduled(fixedDelayString = "${ocr.dictionary.reload-interval-ms:30000}")
+    void reloadIfChanged() {
+        try {
+            if (!location.isFile() || location.lastModified() == snapshot.lastModified()) return;
+
+            snapshot = read();
+            log.info("Dicionário recarregado: {} palavras", size());
+            publisher.publishEvent(new ReloadedEvent(size()));
+        } catch (IOException e) {
+            log.warn("Falha ao recarregar o dicionário: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot read() throws IOException {
+        long lastModified = location.isFile() ? location.lastModified() : -1;
+
+        if (!compiled.isBlank() && Files.exists(Path.of(compiled))) {
+            return new Snapshot(MappedDawg.open(Path.of(compiled)), lastModified);
+        }
+
+        // o nome muda junto com o arquivo de origem, então um compilado antigo nunca é reaproveitado
+        String name = location.getFilename() == null ? "dicionario" : location.getFilename().replaceFirst("\\.[^.]*$", "");
+        Path file = Path.of(compiledDir, name + "-" + location.lastModified() + "-" + location.contentLength() + ".dawg");
+
+        if (!Files.exists(file)) {
+            Set<String> words;
+            try (InputStream in = location.getInputStream()) {
+                words = OcrService.loadDictionary(in);
+            }
+            DawgBuilder.compile(words, file);
+            log.info("Dicionário compilado em {}", file);
+        }
+
+        return new Snapshot(MappedDawg.open(file), lastModified);
+    }
+
+    // remove acentos e deixa minusculo
+    public static String fold(String word) {
+        return MARKS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+
+    // verifica se a palavra existe no dicionario, ignorando acentos e maiusculas
+    public boolean contains(String word) {
+        MappedDawg dawg = snapshot.dawg();
+        return dawg != null && dawg.contains(fold(word));
+    }
+
+    // grafias originais (com acento) de uma palavra já sem acento
+    public List<String> originals(String foldedWord) {
+        MappedDawg dawg = snapshot.dawg();
+        return dawg == null ? List.of() : dawg.originals(foldedWord);
+    }
+
+    // palavras até :maxDistance de :foldedWord, comparando sem acento
+    public List<MappedDawg.Match> search(String foldedWord, int maxDistance) {
+        MappedDawg dawg = snapshot.dawg();
+        return dawg == null ? List.of() : dawg.search(foldedWord, maxDistance);
+    }
+
+    public int size() {
+        MappedDawg dawg = snapshot.dawg();
+        return dawg == null ? 0 : dawg.wordCount();
+    }
+}
@@ -0,0 +1,149 @@
+package com.myproject.ocr;
+
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.ITessAPI.TessPageIterator;
+import net.sourceforge.tess4j.ITessAPI.TessResultIterator;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.TesseractException;
+import net.sourceforge.tess4j.util.ImageIOHelper;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// motor do tesseract inicializado uma unica vez, o traineddata fica carregado entre as chamadas
+// (a classe Tesseract do tess4j faz init/dispose a cada doOCR, por isso usamos a api nativa direto)
+// não é thread-safe: cada instancia deve ser usada por uma thread de cada vez (ver TesseractPool)
+public class OcrEngine implements AutoCloseable {
+
+    private final String language;
+    private TessBaseAPI handle;
+
+    OcrEngine(String datapath, String language, int engineMode) throws TesseractException {
+        this.language = language;
+        this.handle = TessAPI1.TessBaseAPICreate();
+
+        if (TessAPI1.TessBaseAPIInit2(handle, datapath, language, engineMode) != 0) {
+            TessAPI1.TessBaseAPIDelete(handle);
+            handle = null;
+            throw new TesseractException("Falha ao inicializar o Tesseract (" + language + ") em " + datapath);
+        }
+    }
+
+    // texto da pagina e as palavras com confiança e posição, da mesma passada do reconhecimento
+    public record Recognition(String text, List<OcrWord> words) {
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    // extrai o texto da imagem, mesma conversão de pixels usada pelo tess4j (resolução desconhecida: o Tesseract estima)
+    public String doOCR(BufferedImage image) throws TesseractException {
+        return recognize(image, 0, false).text();
+    }
+
+    // extrai o texto direto de um buffer nativo em tons de cinza (sem copiar para o heap), renderizado em :dpi
+    public String doOCR(PagePreprocessor.Pixels pixels, int dpi) throws TesseractException {
+        return recognize(pixels, dpi, false).text();
+    }
+
+    // como doOCR, mas guarda também cada palavra (texto, confiança e caixa)
+    public Recognition recognizeWords(BufferedImage image, int dpi) throws TesseractException {
+        return recognize(image, dpi, true);
+    }
+
+    public Recognition recognizeWords(PagePreprocessor.Pixels pixels, int dpi) throws TesseractException {
+        return recognize(pixels, dpi, true);
+    }
+
+    private Recognition recognize(BufferedImage image, int dpi, boolean withWords) throws TesseractException {
+        if (handle == null) throw new TesseractException("Motor OCR já foi encerrado");
+
+        ByteBuffer buffer = ImageIOHelper.convertImageData(image);
+        int bpp = image.getRaster().getDataBuffer() instanceof DataBufferByte
+                ? image.getColorModel().getPixelSize()
+                : 8;
+        int bytesPerLine = (int) Math.ceil(image.getWidth() * bpp / 8.0);
+
+        return recognize(buffer, image.getWidth(), image.getHeight(), bpp / 8, bytesPerLine, dpi, withWords);
+    }
+
+    private Recognition recognize(PagePreprocessor.Pixels pixels, int dpi, boolean withWords) throws TesseractException {
+        if (handle == null) throw new TesseractException("Motor OCR já foi encerrado");
+        return recognize(pixels.data(), pixels.width(), pixels.height(), 1, pixels.bytesPerLine(), dpi, withWords);
+    }
+
+    private Recognition recognize(ByteBuffer buffer, int width, int height, int bytesPerPixel, int bytesPerLine, int dpi,
+                                  boolean withWords) throws TesseractException {
+        // o tesseract copia a imagem no SetImage, o buffer pode ser reaproveitado depois
+        TessAPI1.TessBaseAPISetImage(handle, buffer, width, height, bytesPerPixel, bytesPerLine);
+        // sem isso o Tesseract assume 70 DPI (imagem crua, sem metadados) e erra o tamanho esperado das letras,
+        // principalmente na passada em baixa resolução do modo adaptativo; precisa vir depois do SetImage
+        if (dpi > 0) TessAPI1.TessBaseAPISetSourceResolution(handle, dpi);
+        try {
+            Pointer text = TessAPI1.TessBaseAPIGetUTF8Text(handle);
+            if (text == null) throw new TesseractException("Tesseract não retornou texto");
+
+            String result;
+            try {
+                result = text.getString(0, "UTF-8");
+            } finally {
+                TessAPI1.TessDeleteText(text);
+            }
+            // o GetUTF8Text já reconheceu a pagina, as palavras saem do mesmo resultado
+            return new Recognition(result, withWords ? words() : List.of());
+        } finally {
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    // percorre o resultado palavra por palavra (mesmo caminho do Tesseract.getWords do tess4j)
+    private List<OcrWord> words() {
+        List<OcrWord> words = new ArrayList<>();
+        TessResultIterator results = TessAPI1.TessBaseAPIGetIterator(handle);
+        if (results == null) return words;
+
+        int level = ITessAPI.TessPageIteratorLevel.RIL_WORD;
+        TessPageIterator page = TessAPI1.TessResultIteratorGetPageIterator(results);
+        IntBuffer left = IntBuffer.allocate(1);
+        IntBuffer top = IntBuffer.allocate(1);
+        IntBuffer right = IntBuffer.allocate(1);
+        IntBuffer bottom = IntBuffer.allocate(1);
+        try {
+            TessAPI1.TessPageIteratorBegin(page);
+            do {
+                Pointer word = TessAPI1.TessResultIteratorGetUTF8Text(results, level);
+                if (word == null) continue;
+
+                String text;
+                try {
+                    text = word.getString(0, "UTF-8");
+                } finally {
+                    TessAPI1.TessDeleteText(word);
+                }
+                float confidence = TessAPI1.TessResultIteratorConfidence(results, level);
+                TessAPI1.TessPageIteratorBoundingBox(page, level, left, top, right, bottom);
+                words.add(new OcrWord(text, confidence, left.get(0), top.get(0),
+                        right.get(0) - left.get(0), bottom.get(0) - top.get(0)));
+            } while (TessAPI1.TessPageIteratorNext(page, level) == ITessAPI.TRUE);
+        } finally {
+            TessAPI1.TessResultIteratorDelete(results);
+        }
+        return words;
+    }
+
+    // libera a memoria nativa do motor
+    @Override
+    public void close() {
+        if (handle == null) return;
+        TessAPI1.TessBaseAPIEnd(handle);
+        TessAPI1.TessBaseAPIDelete(handle);
+        handle = null;
+    }
+}
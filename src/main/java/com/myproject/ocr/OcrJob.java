@@ -0,0 +1,208 @@
+package com.myproject.ocr;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+// job assincrono de OCR: guarda o progresso e os links das paginas já prontas
+// os resultados continuam disponiveis mesmo se o cliente desconectar do stream
+// os eventos são montados sob o lock do job (na ordem certa) e enviados fora dele, no :sender:
+// um cliente lento ou parado não segura a thread do job nem o status()
+public class OcrJob implements OcrService.PageListener {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        boolean finished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final Instant createdAt = Instant.now();
+    private final List<PageResult> pages = new ArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final Executor sender;
+
+    // todo o estado é protegido pelo proprio job (a thread do job escreve, as requisições leem)
+    private State state = State.QUEUED;
+    private int totalPages = -1;
+    private String error;
+    private Instant finishedAt;
+    private Future<?> future;
+
+    OcrJob(String id, Executor sender) {
+        this.id = id;
+        this.sender = sender;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    synchronized void attach(Future<?> future) {
+        this.future = future;
+        // cancelado antes de entrar na fila
+        if (state == State.CANCELLED) future.cancel(true);
+    }
+
+    // sai da fila; falso se foi cancelado enquanto esperava
+    synchronized boolean start() {
+        if (state != State.QUEUED) return false;
+        state = State.RUNNING;
+        broadcast("status", status());
+        return true;
+    }
+
+    @Override
+    public synchronized void started(int pages) {
+        totalPages = pages;
+        broadcast("status", status());
+    }
+
+    @Override
+    public synchronized void page(PageResult result) {
+        pages.add(result);
+        broadcast("page", result);
+    }
+
+    // estado final; ignorado se o job já terminou (ex.: cancelado e depois interrompido)
+    synchronized void finish(State finalState, String message) {
+        if (state.finished()) return;
+
+        state = finalState;
+        error = message;
+        finishedAt = Instant.now();
+        broadcast("status", status());
+
+        subscribers.forEach(Subscriber::complete);
+        subscribers.clear();
+    }
+
+    // cancela o job (na fila ou rodando); falso se já tinha terminado
+    boolean cancel() {
+        Future<?> running;
+        synchronized (this) {
+            if (state.finished()) return false;
+            finish(State.CANCELLED, null);
+            running = future;
+        }
+        if (running != null) running.cancel(true);
+        return true;
+    }
+
+    // stream de eventos: primeiro o estado atual e as paginas já prontas, depois cada pagina nova
+    synchronized SseEmitter subscribe(long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.send("status", status());
+        for (PageResult page : pages) subscriber.send("page", page);
+
+        if (state.finished()) {
+            subscriber.complete();
+            return emitter;
+        }
+
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public synchronized JobStatus status() {
+        return new JobStatus(id, state, totalPages, pages.size(), List.copyOf(pages), error, createdAt, finishedAt);
+    }
+
+    synchronized boolean finishedBefore(Instant limit) {
+        return finishedAt != null && finishedAt.isBefore(limit);
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    // enfileira para todos os ouvintes (chamado com o lock); quem desconectou sai da lista no envio, o job continua
+    private void broadcast(String name, Object data) {
+        subscribers.forEach(subscriber -> subscriber.send(name, data));
+    }
+
+    // evento pendente; :name null = fim do stream
+    private record Event(String name, Object data) {
+    }
+
+    // eventos de um ouvinte, na ordem; no maximo uma tarefa do :sender enviando por vez
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Event> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(String name, Object data) {
+            offer(new Event(name, data));
+        }
+
+        void complete() {
+            offer(new Event(null, null));
+        }
+
+        private synchronized void offer(Event event) {
+            if (closed) return;
+            pending.add(event);
+            if (draining) return;
+            draining = true;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // aplicação desligando
+                draining = false;
+                closed = true;
+                pending.clear();
+            }
+        }
+
+        // roda no :sender, fora do lock do job
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+
+                try {
+                    if (event.name() == null) {
+                        emitter.complete();
+                        close();
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // cliente desconectou
+                    close();
+                    unsubscribe(this);
+                }
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+// jobs de OCR assincronos: o pedido volta na hora com o id e as paginas saem por stream (SSE) conforme ficam prontas
+// no maximo ocr.jobs.concurrency documentos rodando e ocr.jobs.queue-capacity esperando, acima disso o envio é recusado
+@Service
+public class OcrJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrJobService.class);
+
+    @Autowired
+    private OcrService ocrService;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ExecutorService jobExecutor;
+
+    @Autowired
+    @Qualifier("sseExecutor")
+    private ExecutorService sseExecutor;
+
+    // por quanto tempo um job terminado continua consultavel
+    @Value("${ocr.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${ocr.jobs.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    private final Map<String, OcrJob> jobs = new ConcurrentHashMap<>();
+
+    // guarda o PDF em arquivo temporario (o upload some quando a requisição termina) e coloca o job na fila
+    // RejectedExecutionException quando a fila está cheia
+    public OcrJob submit(MultipartFile file, OcrRequest request) throws IOException {
+        if (request.getPaginas() == null || request.getPaginas().isEmpty()) {
+            throw new IllegalArgumentException("Informe as páginas a processar");
+        }
+
+        Path upload = Files.createTempFile("ocr-job-", ".pdf");
+        OcrJob job = new OcrJob(UUID.randomUUID().toString(), sseExecutor);
+        try {
+            file.transferTo(upload);
+            jobs.put(job.getId(), job);
+            job.attach(jobExecutor.submit(() -> run(job, upload, request)));
+        } catch (IOException | RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+
+        log.info("Job {} na fila ({} páginas)", job.getId(), request.getPaginas().size());
+        return job;
+    }
+
+    public Optional<OcrJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public Optional<SseEmitter> subscribe(String id) {
+        return find(id).map(job -> job.subscribe(sseTimeoutMs));
+    }
+
+    // cancela o job; as paginas que já sairam continuam disponiveis
+    public Optional<JobStatus> cancel(String id) {
+        return find(id).map(job -> {
+            if (job.cancel()) log.info("Job {} cancelado", id);
+            return job.status();
+        });
+    }
+
+    // roda na thread do jobExecutor; render/emit aqui, reconhecimento no ocrExecutor
+    @SuppressWarnings("try")
+    private void run(OcrJob job, Path upload, OcrRequest request) {
+        try {
+            if (!job.start()) return;
+
+            MessageDigest digest = OcrCache.newDigest();
+            PDDocument document;
+            try (InputStream in = Files.newInputStream(upload)) {
+                document = ocrService.loadDocument(in, digest);
+            }
+
+            Data dados = new Data(document, new ArrayList<>(request.getPaginas()), request.getParalelismo(),
+                    request.isForcarOcr(), OcrCache.hex(digest), request.getSaida());
+            // o job já passou pela fila dele, aqui só espera a vaga de memoria
+            try (OcrAdmission.Permit permit = ocrService.admit(dados, true)) {
+                ocrService.getOcr(dados, job);
+            }
+            job.finish(OcrJob.State.DONE, null);
+        } catch (Exception e) {
+            job.finish(Thread.currentThread().isInterrupted() ? OcrJob.State.CANCELLED : OcrJob.State.FAILED,
+                    e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Não foi possível apagar {}: {}", upload, e.getMessage());
+            }
+        }
+    }
+
+    // esquece os jobs terminados há mais de ocr.jobs.retention-minutes (os pdfs gerados ficam no OcrStorage até vencerem)
+    @Scheduled(fixedDelayString = "${ocr.jobs.cleanup-interval-ms:60000}")
+    void evictFinished() {
+        Instant limit = Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> job.finishedBefore(limit));
+    }
+}
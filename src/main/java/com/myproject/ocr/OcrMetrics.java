@@ -0,0 +1,72 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// metricas do processamento: tempo de cada estagio e contadores de paginas, linhas e palavras
+// expostas em /actuator/metrics e /actuator/prometheus (cache e pool publicam as suas proprias)
+@Component
+public class OcrMetrics {
+
+    public enum Stage {
+        RENDER, PREPROCESS, LAYOUT, RECOGNIZE, CLEAN, CORRECT, PDF
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<LineClassifier.Verdict, Counter> lines = new EnumMap<>(LineClassifier.Verdict.class);
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public OcrMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("ocr.stage")
+                    .description("Tempo de cada estagio do processamento")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        // uma chamada por linha do texto, contadores criados antes para não montar chaves a cada linha
+        for (LineClassifier.Verdict verdict : LineClassifier.Verdict.values()) {
+            lines.put(verdict, Counter.builder("ocr.lines")
+                    .tag("result", verdict.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    // registra o tempo desde :startNanos (System.nanoTime) no estagio
+    public void record(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // paginas processadas por metodo (OCR, TEXT_LAYER) e origem (cache ou não)
+    public void page(ExtractionMethod method, boolean cached) {
+        counter("ocr.pages", "method", method.name(), "cached", String.valueOf(cached)).increment();
+    }
+
+    // resolução final das paginas que passaram pelo OCR (no modo adaptativo mostra quantas voltaram para 300 DPI)
+    public void dpi(int dpi) {
+        counter("ocr.pages.dpi", "dpi", String.valueOf(dpi)).increment();
+    }
+
+    // linhas do cleanText: kept ou o motivo da rejeição
+    public void line(LineClassifier.Verdict verdict) {
+        lines.get(verdict).increment();
+    }
+
+    // palavras do textCorrector: reliable, suspicious ou ignored
+    public void words(String kind, int count) {
+        if (count > 0) counter("ocr.words", "kind", kind).increment(count);
+    }
+
+    private Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(name + String.join(",", tags), k -> Counter.builder(name).tags(tags).register(registry));
+    }
+}
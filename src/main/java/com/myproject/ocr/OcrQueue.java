@@ -0,0 +1,234 @@
+package com.myproject.ocr;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// fila de paginas em banco (JDBC) para espalhar o OCR de um documento por varios nos
+// cada no com worker pega tarefas por lease: um UPDATE condicional (compare-and-set) só deixa um no ganhar a tarefa,
+// sem lock de linha (SELECT ... LIMIT + UPDATE, que H2, PostgreSQL e MySQL aceitam; tabelas em schema-${platform}.sql)
+// o heartbeat renova o lease enquanto a pagina roda
+// lease vencido (no caiu) devolve a tarefa para a fila, até ocr.queue.max-attempts tentativas
+// documentos esquecidos (o no que recebeu o pedido caiu antes de apagar) saem pelo purge, pela idade
+@Component
+@ConditionalOnProperty(name = "ocr.queue.enabled", havingValue = "true")
+public class OcrQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrQueue.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // tarefas que este worker pode pegar
+    private static final String CLAIMABLE = "(state = 'PENDING' OR (state = 'RUNNING' AND lease_until < ?)) AND attempts < ?";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Value("${ocr.queue.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${ocr.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    // documentos mais velhos que isso já foram abandonados pelo no que os enviou (que desiste em ocr.queue.max-wait-ms)
+    @Value("${ocr.queue.retention-ms:7200000}")
+    private long retentionMs;
+
+    // identifica o no nas tarefas (pid@host + sufixo aleatorio)
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    // tarefa pega por este no; :attempt funciona como token: só quem tem o lease atual consegue gravar o resultado
+    public record Task(long id, String documentId, int page, int attempt, boolean forceOcr, String hash, OutputMode outputMode) {
+    }
+
+    // resultado de uma pagina, :error preenchido quando esgotou as tentativas
+    public record TaskResult(int position, int page, ExtractionMethod method, Integer dpi, String text, List<OcrWord> words,
+                             String error) {
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // grava o PDF e uma tarefa por pagina (na ordem de :pages); devolve o id do documento na fila
+    @Transactional
+    public String submit(PDDocument document, String hash, boolean forceOcr, OutputMode outputMode, List<Integer> pages) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createTempFile("ocr-queue-", ".pdf");
+        try {
+            document.save(file.toFile());
+            try (InputStream in = Files.newInputStream(file)) {
+                long length = Files.size(file);
+                jdbc.update(con -> {
+                    var ps = con.prepareStatement("INSERT INTO ocr_queue_document (id, hash, force_ocr, output_mode, content, created_at) VALUES (?, ?, ?, ?, ?, ?)");
+                    ps.setString(1, id);
+                    ps.setString(2, hash);
+                    ps.setBoolean(3, forceOcr);
+                    ps.setString(4, outputMode.name());
+                    ps.setBinaryStream(5, in, length);
+                    ps.setLong(6, System.currentTimeMillis());
+                    return ps;
+                });
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        List<Object[]> tasks = new ArrayList<>(pages.size());
+        for (int position = 0; position < pages.size(); position++) {
+            tasks.add(new Object[]{id, position, pages.get(position)});
+        }
+        jdbc.batchUpdate("INSERT INTO ocr_queue_task (document_id, seq, page, state, attempts) VALUES (?, ?, ?, 'PENDING', 0)", tasks);
+        return id;
+    }
+
+    // tenta pegar até :limit tarefas, as mais antigas primeiro (paginas do mesmo documento ficam juntas)
+    public List<Task> claim(int limit) {
+        long now = System.currentTimeMillis();
+        List<Long> candidates = jdbc.queryForList(
+                "SELECT id FROM ocr_queue_task WHERE " + CLAIMABLE + " ORDER BY id LIMIT ?",
+                Long.class, now, maxAttempts, limit);
+
+        List<Task> claimed = new ArrayList<>();
+        for (long id : candidates) {
+            // outro no pode ter pego entre o SELECT e aqui: o UPDATE só passa se a tarefa continuar disponivel
+            int updated = jdbc.update("UPDATE ocr_queue_task SET state = 'RUNNING', owner = ?, lease_until = ?, attempts = attempts + 1"
+                    + " WHERE id = ? AND " + CLAIMABLE, nodeId, now + leaseMs, id, now, maxAttempts);
+            if (updated == 0) continue;
+
+            jdbc.query("SELECT t.id, t.document_id, t.page, t.attempts, d.force_ocr, d.hash, d.output_mode"
+                            + " FROM ocr_queue_task t JOIN ocr_queue_document d ON d.id = t.document_id WHERE t.id = ? AND t.owner = ?",
+                    rs -> {
+                        claimed.add(new Task(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getBoolean(5),
+                                rs.getString(6), OutputMode.valueOf(rs.getString(7))));
+                    }, id, nodeId);
+        }
+        return claimed;
+    }
+
+    // renova o lease de uma tarefa em andamento; false se ela já não é deste no (lease venceu, documento cancelado)
+    public boolean heartbeat(Task task) {
+        return jdbc.update("UPDATE ocr_queue_task SET lease_until = ? WHERE id = ? AND owner = ? AND attempts = ? AND state = 'RUNNING'",
+                System.currentTimeMillis() + leaseMs, task.id(), nodeId, task.attempt()) == 1;
+    }
+
+    public void complete(Task task, PageText page) {
+        String words;
+        try {
+            words = page.words().isEmpty() ? null : JSON.writeValueAsString(page.words());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbc.update("UPDATE ocr_queue_task SET state = 'DONE', method = ?, dpi = ?, text = ?, words = ?, owner = NULL, lease_until = NULL"
+                        + " WHERE id = ? AND owner = ? AND attempts = ? AND state = 'RUNNING'",
+                page.method().name(), page.dpi(), page.text(), words, task.id(), nodeId, task.attempt());
+    }
+
+    // volta para a fila, ou FAILED na ultima tentativa
+    public void fail(Task task, String error) {
+        jdbc.update("UPDATE ocr_queue_task SET state = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END, error = ?,"
+                        + " owner = NULL, lease_until = NULL WHERE id = ? AND owner = ? AND attempts = ? AND state = 'RUNNING'",
+                maxAttempts, truncate(error), task.id(), nodeId, task.attempt());
+    }
+
+    // tarefas com lease vencido e sem tentativas sobrando (o no caiu na ultima tentativa)
+    public int expire() {
+        return jdbc.update("UPDATE ocr_queue_task SET state = 'FAILED', error = 'Lease expirado', owner = NULL"
+                + " WHERE state = 'RUNNING' AND lease_until < ? AND attempts >= ?", System.currentTimeMillis(), maxAttempts);
+    }
+
+    // copia o PDF do documento para :target; vazio se o documento já saiu da fila
+    public Optional<Path> download(String documentId, Path target) {
+        Boolean found = jdbc.query("SELECT content FROM ocr_queue_document WHERE id = ?", rs -> {
+            if (!rs.next()) return false;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, documentId);
+        return Boolean.TRUE.equals(found) ? Optional.of(target) : Optional.empty();
+    }
+
+    // paginas terminadas a partir de :position, em sequencia (para na primeira que ainda não terminou)
+    public List<TaskResult> finished(String documentId, int position) {
+        List<TaskResult> results = new ArrayList<>();
+        jdbc.query("SELECT seq, page, state, method, dpi, text, words, error FROM ocr_queue_task"
+                        + " WHERE document_id = ? AND seq >= ? ORDER BY seq",
+                rs -> {
+                    int expected = position + results.size();
+                    String state = rs.getString(3);
+                    if (rs.getInt(1) != expected || !(state.equals("DONE") || state.equals("FAILED"))) return;
+
+                    String method = rs.getString(4);
+                    int dpi = rs.getInt(5);
+                    boolean noDpi = rs.wasNull();
+                    results.add(new TaskResult(rs.getInt(1), rs.getInt(2),
+                            method == null ? null : ExtractionMethod.valueOf(method),
+                            noDpi ? null : dpi,
+                            rs.getString(6), words(rs.getString(7)),
+                            state.equals("FAILED") ? rs.getString(8) : null));
+                }, documentId, position);
+        return results;
+    }
+
+    // documento terminado ou cancelado: tarefas ainda pendentes somem junto (o worker que estiver nela só perde o resultado)
+    @Transactional
+    public void delete(String documentId) {
+        jdbc.update("DELETE FROM ocr_queue_task WHERE document_id = ?", documentId);
+        jdbc.update("DELETE FROM ocr_queue_document WHERE id = ?", documentId);
+    }
+
+    // apaga documentos (PDF e tarefas) enviados há mais de ocr.queue.retention-ms; roda em todos os nos, é idempotente
+    @Scheduled(fixedDelayString = "${ocr.queue.purge-interval-ms:600000}")
+    public void purge() {
+        try {
+            int purged = purge(System.currentTimeMillis() - retentionMs);
+            if (purged > 0) log.warn("{} documentos abandonados removidos da fila OCR", purged);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao limpar a fila OCR: {}", e.getMessage());
+        }
+    }
+
+    // tarefas antes do documento: se parar no meio, o documento continua lá e a proxima rodada termina
+    int purge(long createdBefore) {
+        jdbc.update("DELETE FROM ocr_queue_task WHERE document_id IN (SELECT id FROM ocr_queue_document WHERE created_at < ?)", createdBefore);
+        return jdbc.update("DELETE FROM ocr_queue_document WHERE created_at < ?", createdBefore);
+    }
+
+    private static List<OcrWord> words(String json) {
+        if (json == null) return List.of();
+        try {
+            return JSON.readValue(json, new TypeReference<List<OcrWord>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
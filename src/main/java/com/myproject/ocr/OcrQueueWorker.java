@@ -0,0 +1,162 @@
+package com.myproject.ocr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// worker do modo distribuido: ocr.queue.worker.threads threads pegando paginas da OcrQueue, uma por vez
+// cada thread mantem aberto o ultimo documento baixado (as paginas de um documento costumam vir em sequencia)
+@Component
+@ConditionalOnExpression("${ocr.queue.enabled:false} and ${ocr.queue.worker.enabled:true}")
+public class OcrQueueWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrQueueWorker.class);
+
+    @Autowired
+    private OcrQueue queue;
+
+    @Autowired
+    private OcrService ocrService;
+
+    @Value("${ocr.queue.worker.threads:${ocr.pool.max-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}}")
+    private int threads;
+
+    // espera quando a fila está vazia
+    @Value("${ocr.queue.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    private ExecutorService workers;
+
+    // tarefas em andamento neste no, renovadas pelo heartbeat
+    private final Set<OcrQueue.Task> running = ConcurrentHashMap.newKeySet();
+
+    private record Loaded(String documentId, PDDocument document, Path file) {
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ocr-queue-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) workers.submit(this::loop);
+        log.info("Worker da fila OCR iniciado ({} threads, nó {})", threads, queue.nodeId());
+    }
+
+    // paginas interrompidas voltam para a fila (contam como tentativa)
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    private void loop() {
+        Loaded current = null;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<OcrQueue.Task> tasks;
+                try {
+                    tasks = queue.claim(1);
+                } catch (RuntimeException e) {
+                    // banco fora do ar: tenta de novo depois
+                    log.warn("Falha ao buscar tarefas na fila OCR: {}", e.getMessage());
+                    tasks = List.of();
+                }
+                if (tasks.isEmpty()) {
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+                current = process(tasks.get(0), current);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(current);
+        }
+    }
+
+    private Loaded process(OcrQueue.Task task, Loaded current) {
+        running.add(task);
+        try {
+            if (current == null || !current.documentId().equals(task.documentId())) {
+                close(current);
+                current = open(task.documentId());
+                // documento cancelado: as tarefas sumiram junto
+                if (current == null) return null;
+            }
+
+            PageText page = ocrService.processPage(current.document(), task.page(), task.forceOcr(), task.hash(), task.outputMode());
+            queue.complete(task, page);
+        } catch (Exception e) {
+            log.warn("Falha na página {} do documento {} (tentativa {}): {}", task.page(), task.documentId(), task.attempt(), e.getMessage());
+            try {
+                queue.fail(task, e.getMessage() == null ? e.toString() : e.getMessage());
+            } catch (RuntimeException failure) {
+                // o lease vence e a tarefa volta para a fila
+                log.warn("Falha ao devolver a tarefa {} para a fila: {}", task.id(), failure.getMessage());
+            }
+        } finally {
+            running.remove(task);
+        }
+        return current;
+    }
+
+    private Loaded open(String documentId) throws IOException {
+        Path file = Files.createTempFile("ocr-worker-", ".pdf");
+        try {
+            if (queue.download(documentId, file).isEmpty()) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                return new Loaded(documentId, ocrService.loadDocument(in), file);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static void close(Loaded loaded) {
+        if (loaded == null) return;
+        try {
+            loaded.document().close();
+            Files.deleteIfExists(loaded.file());
+        } catch (IOException e) {
+            log.warn("Falha ao fechar o documento {} da fila: {}", loaded.documentId(), e.getMessage());
+        }
+    }
+
+    // renova o lease das paginas em andamento e encerra as que venceram sem tentativas sobrando
+    @Scheduled(fixedDelayString = "${ocr.queue.heartbeat-ms:20000}")
+    void heartbeat() {
+        try {
+            for (OcrQueue.Task task : running) {
+                if (!queue.heartbeat(task)) log.debug("Tarefa {} não é mais deste nó", task.id());
+            }
+            int expired = queue.expire();
+            if (expired > 0) log.warn("{} tarefas da fila OCR falharam por lease expirado", expired);
+        } catch (RuntimeException e) {
+            log.warn("Falha no heartbeat da fila OCR: {}", e.getMessage());
+        }
+    }
+}
@@ -5,6 +5,15 @@ import java.util.List;
 public class OcrRequest {
     private List<Integer> paginas;
 
+    // quantas paginas processar ao mesmo tempo (opcional, limitado por ocr.parallelism)
+    private Integer paralelismo;
+
+    // faz OCR mesmo nas paginas que já têm camada de texto
+    private boolean forcarOcr;
+
+    // PAGES (um pdf por pagina, padrão), DOCUMENT (um pdf só) ou SEARCHABLE (pdf original com o texto do OCR por cima)
+    private OutputMode saida;
+
     // getter e setter obrigatórios
     public List<Integer> getPaginas() {
         return paginas;
@@ -13,4 +22,28 @@ public class OcrRequest {
     public void setPaginas(List<Integer> paginas) {
         this.paginas = paginas;
     }
+
+    public Integer getParalelismo() {
+        return paralelismo;
+    }
+
+    public void setParalelismo(Integer paralelismo) {
+        this.paralelismo = paralelismo;
+    }
+
+    public boolean isForcarOcr() {
+        return forcarOcr;
+    }
+
+    public void setForcarOcr(boolean forcarOcr) {
+        this.forcarOcr = forcarOcr;
+    }
+
+    public OutputMode getSaida() {
+        return saida;
+    }
+
+    public void setSaida(OutputMode saida) {
+        this.saida = saida;
+    }
 }
@@ -1,305 +1,857 @@
 package com.myproject.ocr;
 
-import net.sourceforge.tess4j.Tesseract;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.sourceforge.tess4j.TesseractException;
 
 import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.text.Normalizer;
 import java.util.*;
-
-import org.bytedeco.opencv.opencv_core.Mat;
-import org.bytedeco.javacpp.indexer.FloatRawIndexer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 
-import static org.bytedeco.opencv.global.opencv_core.*;
-import static org.bytedeco.opencv.global.opencv_imgproc.*;
-
 @Service
 public class OcrService {
 
+    private static final Logger log = LoggerFactory.getLogger(OcrService.class);
+
+    // resolução usada para renderizar as paginas que vão para o OCR
+    private static final int OCR_DPI = 300;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Autowired
+    private TesseractPool tesseractPool;
+
+    @Autowired
+    private OcrDictionary dictionary;
+
+    @Autowired
+    private DictionaryIndex dictionaryIndex;
+
+    @Autowired
+    private TextLayerDetector textLayerDetector;
+
+    @Autowired
+    private PagePreprocessor preprocessor;
+
+    @Autowired
+    private OcrCache cache;
+
+    @Autowired
+    private OcrMetrics metrics;
+
+    @Autowired
+    private PageLayout layout;
+
+    @Autowired
+    private OcrStorage storage;
+
+    @Autowired
+    private OcrAdmission admission;
+
+    @Autowired
+    private OcrTextIndex textIndex;
+
+    // só com ocr.queue.enabled=true: as paginas são processadas pelos workers da fila (qualquer no)
+    @Autowired(required = false)
+    private OcrQueue queue;
+
+    // tempo maximo esperando as paginas de um documento na fila
+    @Value("${ocr.queue.max-wait-ms:1800000}")
+    private long queueMaxWaitMs;
+
+    @Value("${ocr.queue.poll-interval-ms:500}")
+    private long queuePollIntervalMs;
+
+    @Autowired
+    @Qualifier("ocrExecutor")
+    private ExecutorService ocrExecutor;
+
+    @Autowired
+    @Qualifier("regionExecutor")
+    private ExecutorService regionExecutor;
+
+    @Value("${ocr.parallelism:${ocr.pool.max-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}}")
+    private int maxParallelism;
+
+    // paginas renderizadas e ainda não emitidas por documento (0 = paralelismo + 1)
+    @Value("${ocr.pipeline.max-pages-in-flight:0}")
+    private int maxPagesInFlight;
+
+    @Value("${ocr.pdf.max-main-memory-bytes:16777216}")
+    private long maxMainMemoryBytes;
+
+    // OCR adaptativo: primeira passada em ocr.dpi.low, só as paginas com confiança ou texto abaixo do limite voltam a OCR_DPI
+    @Value("${ocr.dpi.adaptive:false}")
+    private boolean adaptiveDpi;
+
+    @Value("${ocr.dpi.low:150}")
+    private int lowDpi;
+
+    // confiança media das palavras (0-100) e altura mediana das palavras (pixels) na primeira passada
+    @Value("${ocr.dpi.min-confidence:75}")
+    private float minPageConfidence;
+
+    @Value("${ocr.dpi.min-text-height-px:20}")
+    private int minTextHeight;
+
+    // divide a pagina em blocos de texto (PageLayout) reconhecidos em paralelo
+    @Value("${ocr.layout.enabled:false}")
+    private boolean layoutEnabled;
+
+    // palavras do OCR com confiança a partir daqui (0-100) não passam pela busca de correções
+    @Value("${ocr.correction.min-confidence:80}")
+    private float minConfidence;
+
     // method principal, extrai texto e converte em pdf
-    public ResponseEntity<List<String>> getOcr(PDDocument document, ArrayList<Integer> pages) throws IOException {
+    public ResponseEntity<List<PageResult>> getOcr(PDDocument document, ArrayList<Integer> pages) throws IOException {
+        return getOcr(new Data(document, pages, null, false));
+    }
+
+    public ResponseEntity<List<PageResult>> getOcr(Data dados) throws IOException {
+        return ResponseEntity.ok(getOcr(dados, page -> {
+        }));
+    }
+
+    // acompanha o processamento de um documento (jobs assincronos)
+    public interface PageListener {
+        // quantas paginas validas serão processadas
+        default void started(int pages) {
+        }
+
+        // texto final da pagina (o mesmo do pdf), logo antes do page()
+        default void text(int page, String text) {
+        }
+
+        // chamado na ordem das paginas, assim que o pdf de cada uma é gerado
+        void page(PageResult result);
+    }
+
+    // processa as paginas no pipeline render -> preprocess/recognize -> emit
+    // até :paralelismo paginas em paralelo, com no maximo ocr.pipeline.max-pages-in-flight renderizadas em memoria
+    // com :saida DOCUMENT/SEARCHABLE o emit vai acrescentando as paginas em um unico pdf, publicado no fim
+    public List<PageResult> getOcr(Data dados, PageListener listener) throws IOException {
+        PDDocument document = dados.document();
         PDFRenderer pdfRenderer = new PDFRenderer(document);
-        List<String> links = new ArrayList<>();
 
         // navega pelas :paginas do :document
-        for (int pageNum : pages) {
+        List<Integer> validPages = new ArrayList<>();
+        for (int pageNum : dados.paginas()) {
             // valida se não é um numero negativo
             if (pageNum < 1 || pageNum > document.getNumberOfPages()) {
-                System.out.println("Página " + pageNum + " inválida, ignorando.");
+                log.warn("Página {} inválida, ignorando.", pageNum);
                 continue;
             }
+            validPages.add(pageNum);
+        }
 
-            // extraindo pagina :pageNum
-            BufferedImage bim = pdfRenderer.renderImageWithDPI(pageNum - 1, 300);
-            BufferedImage sharpImage = sharp(bim);
+        int parallelism = resolveParallelism(dados.paralelismo());
+        int inFlight = pagesInFlight(parallelism);
+        PagePipeline<RenderedPage, RecognizedPage, PageResult> pipeline = new PagePipeline<>(ocrExecutor, parallelism, inFlight);
 
-            String text = ocr(sharpImage);
+        // paginas prontas vão para o arquivo temporario do PDFBox, não ficam no heap
+        PdfOutput output = dados.outputMode() == OutputMode.PAGES ? null
+                : new PdfOutput(storage.newFile("ocr_documento"), MemoryUsageSetting.setupTempFileOnly());
+        try {
+            listener.started(validPages.size());
+            List<PageResult> results = queue != null ? gatherFromQueue(dados, validPages, output, listener) : pipeline.run(validPages.size(),
+                    index -> renderPage(document, pdfRenderer, validPages.get(index), dados),
+                    page -> recognizePage(page, dados, dpi -> renderImage(document, pdfRenderer, page.pageNum(), dpi)),
+                    (index, page) -> {
+                        PageResult result = emitPage(page, document, dados.outputMode(), output);
+                        index(dados.hash(), page);
+                        listener.text(page.pageNum(), page.text());
+                        listener.page(result);
+                        return result;
+                    });
+            // as paginas importadas no modo SEARCHABLE apontam para o :document, salva antes de fechar
+            if (output != null) save(output);
+            return results;
+        } finally {
+            try {
+                if (output != null) output.close();
+            } finally {
+                document.close();
+            }
+        }
+    }
 
-            // cria um PDF individual com o texto
-            String fileName = "ocr_pagina_" + pageNum + "_" + System.currentTimeMillis() + ".pdf";
-            File paste = new File("src/main/resources/static/ocr/");
-            if (!paste.exists()) paste.mkdirs();
+    // modo distribuido: as paginas viram tarefas na OcrQueue e qualquer no com worker faz o OCR;
+    // aqui só espera os resultados e faz o emit, na ordem das paginas (igual ao pipeline local)
+    private List<PageResult> gatherFromQueue(Data dados, List<Integer> pages, PdfOutput output, PageListener listener) throws IOException {
+        PDDocument document = dados.document();
+        String documentId = queue.submit(document, dados.hash(), dados.forcarOcr(), dados.outputMode(), pages);
+        try {
+            List<PageResult> results = new ArrayList<>(pages.size());
+            long deadline = System.currentTimeMillis() + queueMaxWaitMs;
+            while (results.size() < pages.size()) {
+                for (OcrQueue.TaskResult task : queue.finished(documentId, results.size())) {
+                    // esgotou as tentativas: a pagina sai com o erro, como no OCR local
+                    RecognizedPage page = task.error() == null
+                            ? new RecognizedPage(task.page(), task.text(), task.method(), task.dpi(), task.words())
+                            : new RecognizedPage(task.page(), "Erro ao fazer OCR: " + task.error(), ExtractionMethod.OCR, null, List.of());
+                    PageResult result = emitPage(page, document, dados.outputMode(), output);
+                    index(dados.hash(), page);
+                    listener.text(page.pageNum(), page.text());
+                    listener.page(result);
+                    results.add(result);
+                }
+                if (results.size() == pages.size()) break;
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Tempo esgotado esperando as páginas na fila (" + results.size() + "/" + pages.size() + ")");
+                }
+                Thread.sleep(queuePollIntervalMs);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Processamento das páginas interrompido", e);
+        } finally {
+            // cancela o que ainda estiver pendente
+            queue.delete(documentId);
+        }
+    }
 
-            File pdf = new File(paste, fileName);
-            toPdf(text, pdf);
+    // texto da pagina para a busca (/ocr/search), gravado depois em lote
+    private void index(String hash, RecognizedPage page) {
+        textIndex.add(hash, new PageText(page.pageNum(), page.text(), page.method(), page.words(), page.dpi()));
+    }
 
-            // gera link para efetuar download do pdf
-            String url = "http://localhost:8080/ocr/" + fileName;
-            links.add(url);
+    // uma pagina fora do pipeline, para o OcrQueueWorker: mesmo cache, camada de texto e OCR adaptativo do getOcr
+    // reserva no OcrAdmission só a propria pagina
+    @SuppressWarnings("try")
+    public PageText processPage(PDDocument document, int pageNum, boolean forcarOcr, String hash, OutputMode saida) throws IOException {
+        Data dados = new Data(document, new ArrayList<>(List.of(pageNum)), 1, forcarOcr, hash, saida);
+        PDFRenderer renderer = new PDFRenderer(document);
+        try (OcrAdmission.Permit permit = admission.await(pagePixels(document, pageNum))) {
+            RenderedPage rendered = renderPage(document, renderer, pageNum, dados);
+            RecognizedPage page = recognizePage(rendered, dados, dpi -> renderImage(document, renderer, pageNum, dpi));
+            return new PageText(pageNum, page.text(), page.method(), page.words(), page.dpi());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido esperando vaga para o OCR", e);
         }
+    }
 
-        document.close();
-        return ResponseEntity.ok(links);
+    // carrega o PDF guardando no heap só até ocr.pdf.max-main-memory-bytes, o resto vai para arquivo temporario
+    public PDDocument loadDocument(InputStream in) throws IOException {
+        return PDDocument.load(in, MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
     }
 
+    // carrega o PDF e, na mesma leitura, alimenta :digest com os bytes (hash usado como chave do cache)
+    public PDDocument loadDocument(InputStream in, MessageDigest digest) throws IOException {
+        DigestInputStream hashing = new DigestInputStream(in, digest);
+        PDDocument document = loadDocument(hashing);
+        try {
+            // garante que o hash cobre o arquivo inteiro, mesmo que o PDFBox pare antes do fim
+            hashing.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            document.close();
+            throw e;
+        }
+        return document;
+    }
 
-    // metodo basico, para extrair texto de imagem e arquivo
-    public String ocr(BufferedImage image) {
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("C:/Program Files/Tesseract-OCR/tessdata");
-        tesseract.setLanguage("por");
-        tesseract.setOcrEngineMode(1);
+    // reserva espaço no OcrAdmission para processar :dados (liberado no close da Permit)
+    // pedidos HTTP (:background false) recebem SaturatedException se o serviço estiver cheio, jobs e lotes esperam
+    // se não conseguir a vaga o documento é fechado
+    // no modo distribuido quem renderiza são os workers (cada um reserva a sua pagina), aqui não reserva nada
+    public OcrAdmission.Permit admit(Data dados, boolean background) throws IOException {
+        if (queue != null) return () -> {
+        };
+        try {
+            long pixels = estimatePixels(dados);
+            return background ? admission.await(pixels) : admission.admit(pixels);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dados.document().close();
+            throw new IOException("Interrompido esperando vaga para o OCR", e);
+        } catch (RuntimeException e) {
+            dados.document().close();
+            throw e;
+        }
+    }
+
+    // custo do pedido para o OcrAdmission: pixels das maiores paginas pedidas que cabem ao mesmo tempo no pipeline,
+    // em OCR_DPI (o modo adaptativo pode voltar para ela); paginas com camada de texto contam igual, só se sabe depois
+    public long estimatePixels(Data dados) {
+        PDDocument document = dados.document();
+        List<Long> pixels = new ArrayList<>();
+        for (int pageNum : dados.paginas()) {
+            if (pageNum < 1 || pageNum > document.getNumberOfPages()) continue;
+            pixels.add(pagePixels(document, pageNum));
+        }
+        pixels.sort(Comparator.reverseOrder());
+
+        long total = 0;
+        int window = pagesInFlight(resolveParallelism(dados.paralelismo()));
+        for (int i = 0; i < Math.min(window, pixels.size()); i++) total += pixels.get(i);
+        return total;
+    }
+
+    // tamanho da imagem da pagina renderizada em OCR_DPI (o PDFRenderer desenha a cropBox)
+    private static long pagePixels(PDDocument document, int pageNum) {
+        PDRectangle box = document.getPage(pageNum - 1).getCropBox();
+        double scale = OCR_DPI / 72.0;
+        return (long) (Math.ceil(box.getWidth() * scale) * Math.ceil(box.getHeight() * scale));
+    }
+
+    private int pagesInFlight(int parallelism) {
+        return maxPagesInFlight > 0 ? maxPagesInFlight : parallelism + 1;
+    }
+
+    // paralelismo do pedido, limitado pelo maximo global
+    private int resolveParallelism(Integer requested) {
+        if (requested == null || requested < 1) return maxParallelism;
+        return Math.min(requested, maxParallelism);
+    }
+
+    // pagina lida do documento: imagem para OCR (renderizada em :dpi), ou o texto já pronto (camada de texto ou cache)
+    private record RenderedPage(int pageNum, BufferedImage image, String text, ExtractionMethod method, Integer dpi,
+                                List<OcrWord> words) {
+    }
 
+    private record RecognizedPage(int pageNum, String text, ExtractionMethod method, Integer dpi, List<OcrWord> words) {
+    }
+
+    // estagio render: roda sempre na mesma thread, PDFRenderer/PDDocument não são thread-safe
+    private RenderedPage renderPage(PDDocument document, PDFRenderer pdfRenderer, int pageNum, Data dados) throws IOException {
+        // mesmo PDF e mesma pagina já processados: nem renderiza
+        String key = pageCacheKey(pageNum, "sharpen", dados.forcarOcr());
+        PageText cached = cachedPage(dados.hash(), key, pageNum);
+        // o pdf pesquisavel precisa das posições das palavras, entradas antigas (só o texto) refazem o OCR
+        boolean missingWords = cached != null && dados.outputMode() == OutputMode.SEARCHABLE
+                && cached.method() == ExtractionMethod.OCR && cached.words().isEmpty();
+        if (cached != null && !missingWords) {
+            metrics.page(cached.method(), true);
+            return new RenderedPage(pageNum, null, cached.text(), cached.method(), cached.dpi(), cached.words());
+        }
+
+        long start = System.nanoTime();
         try {
-            String result = tesseract.doOCR(image);
+            TextLayerDetector.TextLayer layer = null;
+            if (!dados.forcarOcr()) {
+                synchronized (document) {
+                    layer = textLayerDetector.analyze(document, pageNum);
+                }
+            }
+            if (layer != null && layer.usable()) {
+                String text = "Texto detectado:\n" + layer.text();
+                cachePage(dados.hash(), key, new PageText(pageNum, text, ExtractionMethod.TEXT_LAYER));
+                metrics.page(ExtractionMethod.TEXT_LAYER, false);
+                return new RenderedPage(pageNum, null, text, ExtractionMethod.TEXT_LAYER, null, List.of());
+            }
 
-            return "Texto detectado:\n" + result;
+            // extraindo pagina :pageNum já em tons de cinza (1 byte por pixel, sem conversão depois)
+            int dpi = firstPassDpi();
+            return new RenderedPage(pageNum, renderImage(document, pdfRenderer, pageNum, dpi), null, ExtractionMethod.OCR, dpi, List.of());
+        } finally {
+            metrics.record(OcrMetrics.Stage.RENDER, start);
+        }
+    }
+
+    // o OCR adaptativo pode renderizar de novo a partir das threads do ocrExecutor, o lock no documento serializa o PDFBox
+    private BufferedImage renderImage(PDDocument document, PDFRenderer pdfRenderer, int pageNum, int dpi) throws IOException {
+        synchronized (document) {
+            return pdfRenderer.renderImageWithDPI(pageNum - 1, dpi, ImageType.GRAY);
+        }
+    }
+
+    // estagios preprocess + recognize: rodam em paralelo no ocrExecutor
+    private RecognizedPage recognizePage(RenderedPage page, Data dados, PageRender render) throws IOException {
+        if (page.image() == null) {
+            return new RecognizedPage(page.pageNum(), page.text(), page.method(), page.dpi(), page.words());
+        }
+
+        try {
+            // a imagem nitida vai direto da memoria nativa do OpenCV para o Tesseract
+            Pass pass = recognizeAdaptive(page.image(), page.dpi(), render, (image, dpi) -> {
+                long start = System.nanoTime();
+                return preprocessor.sharpen(image, pixels -> {
+                    metrics.record(OcrMetrics.Stage.PREPROCESS, start);
+                    // as palavras só são necessarias para decidir a resolução e para o pdf pesquisavel
+                    return recognizePixels(pixels, dpi, adaptiveDpi || dados.outputMode() == OutputMode.SEARCHABLE);
+                });
+            });
+            String text = "Texto detectado:\n" + pass.recognition().text();
+            // erros não vão para o cache, a proxima tentativa roda o OCR de novo
+            cachePage(dados.hash(), pageCacheKey(page.pageNum(), "sharpen", dados.forcarOcr()),
+                    new PageText(page.pageNum(), text, ExtractionMethod.OCR, pass.recognition().words(), pass.dpi()));
+            metrics.page(ExtractionMethod.OCR, false);
+            return new RecognizedPage(page.pageNum(), text, ExtractionMethod.OCR, pass.dpi(), pass.recognition().words());
         } catch (TesseractException e) {
-            return "Erro ao fazer OCR: " + e.getMessage();
+            log.warn("Erro ao fazer OCR da página {}: {}", page.pageNum(), e.getMessage());
+            return new RecognizedPage(page.pageNum(), "Erro ao fazer OCR: " + e.getMessage(), ExtractionMethod.OCR, page.dpi(), List.of());
         }
     }
 
+    // renderiza de novo a pagina em outra resolução
+    @FunctionalInterface
+    private interface PageRender {
+        BufferedImage render(int dpi) throws IOException;
+    }
 
-    // deixa a imagem mais nitida
-    public BufferedImage sharp(BufferedImage image) {
-        Mat mat = bufferedImageToMat(image);
+    // OCR de uma imagem renderizada em :dpi (com ou sem pré-processamento)
+    @FunctionalInterface
+    private interface PageRecognizer {
+        OcrEngine.Recognition recognize(BufferedImage image, int dpi) throws TesseractException;
+    }
 
-        // Converte para escala de cinza
-        Mat gray = new Mat();
-        cvtColor(mat, gray, COLOR_BGR2GRAY);
+    // resultado do OCR e a resolução em que ele foi feito
+    private record Pass(OcrEngine.Recognition recognition, int dpi) {
+    }
 
-        // Kernel de nitidez
-        Mat kernel = new Mat(3, 3, CV_32F);
-        FloatRawIndexer indexer = kernel.createIndexer();
-        indexer.put(0, 0,  0f);  indexer.put(0, 1, -1f);  indexer.put(0, 2,  0f);
-        indexer.put(1, 0, -1f);  indexer.put(1, 1,  9f);  indexer.put(1, 2, -1f);
-        indexer.put(2, 0,  0f);  indexer.put(2, 1, -1f);  indexer.put(2, 2,  0f);
-        indexer.release();
+    private int firstPassDpi() {
+        return adaptiveDpi ? Math.min(lowDpi, OCR_DPI) : OCR_DPI;
+    }
 
-        Mat result = new Mat();
-        filter2D(gray, result, gray.depth(), kernel);
+    // faz o OCR de :image (renderizada em :dpi); se foi a passada em baixa resolução e o resultado não convence,
+    // renderiza de novo em OCR_DPI e repete (só a pagina, o resto do documento continua na resolução baixa)
+    private Pass recognizeAdaptive(BufferedImage image, int dpi, PageRender render, PageRecognizer recognizer) throws IOException, TesseractException {
+        OcrEngine.Recognition recognition = recognizer.recognize(image, dpi);
+        if (dpi >= OCR_DPI || !needsHighResolution(recognition.words())) {
+            metrics.dpi(dpi);
+            return new Pass(recognition, dpi);
+        }
 
-        return matToBufferedImage(result);
+        long start = System.nanoTime();
+        BufferedImage high = render.render(OCR_DPI);
+        metrics.record(OcrMetrics.Stage.RENDER, start);
+        metrics.dpi(OCR_DPI);
+        return new Pass(recognizer.recognize(high, OCR_DPI), OCR_DPI);
     }
 
-    // converte a imagem para Mat, para que possa ser usada o methodo nitidez
-    private static Mat bufferedImageToMat(BufferedImage bi) {
-        BufferedImage convertedImg = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-        convertedImg.getGraphics().drawImage(bi, 0, 0, null);
+    // confiança media baixa ou texto pequeno demais (altura mediana das palavras) na resolução baixa
+    private boolean needsHighResolution(List<OcrWord> words) {
+        List<Integer> heights = new ArrayList<>(words.size());
+        double confidence = 0;
+        for (OcrWord word : words) {
+            if (word.text().isBlank()) continue;
+            heights.add(word.height());
+            confidence += word.confidence();
+        }
+
+        // nada reconhecido: pode ser pagina em branco ou texto pequeno demais, na duvida vai para a resolução alta
+        if (heights.isEmpty()) return true;
 
-        byte[] pixels = ((DataBufferByte) convertedImg.getRaster().getDataBuffer()).getData();
-        Mat mat = new Mat(bi.getHeight(), bi.getWidth(), CV_8UC3);
-        mat.data().put(pixels);
-        return mat;
+        Collections.sort(heights);
+        int medianHeight = heights.get(heights.size() / 2);
+        double meanConfidence = confidence / heights.size();
+        log.debug("Primeira passada: confiança media {} e altura mediana {}px", meanConfidence, medianHeight);
+        return meanConfidence < minPageConfidence || medianHeight < minTextHeight;
     }
 
-    // retorna a imagem nitida para o method getOcr
-    private static BufferedImage matToBufferedImage(Mat mat) {
-        int type = (mat.channels() == 1) ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_3BYTE_BGR;
-        BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), type);
-        byte[] data = new byte[mat.cols() * mat.rows() * mat.channels()];
-        mat.data().get(data);
-        image.getRaster().setDataElements(0, 0, mat.cols(), mat.rows(), data);
-        return image;
+    // OCR dos pixels da pagina: inteira, ou com ocr.layout.enabled só os blocos de texto, em paralelo em motores do pool
+    // :withWords também devolve as palavras (confiança e posição na pagina)
+    private OcrEngine.Recognition recognizePixels(PagePreprocessor.Pixels pixels, int dpi, boolean withWords) throws TesseractException {
+        if (!layoutEnabled) return recognizeBlock(pixels, dpi, withWords);
+
+        long start = System.nanoTime();
+        List<PageLayout.Block> blocks = layout.blocks(pixels, dpi);
+        metrics.record(OcrMetrics.Stage.LAYOUT, start);
+        log.debug("Layout: {} blocos de texto", blocks.size());
+        // pagina em branco: nada para o Tesseract
+        if (blocks.isEmpty()) return new OcrEngine.Recognition("", List.of());
+
+        // o primeiro bloco roda nesta thread, os outros no regionExecutor
+        CountDownLatch running = new CountDownLatch(blocks.size() - 1);
+        AtomicBoolean abort = new AtomicBoolean();
+        List<Future<OcrEngine.Recognition>> others = new ArrayList<>();
+        try {
+            for (PageLayout.Block block : blocks.subList(1, blocks.size())) {
+                others.add(regionExecutor.submit(() -> {
+                    try {
+                        return abort.get() ? null : recognizeBlock(crop(pixels, block), dpi, withWords);
+                    } finally {
+                        running.countDown();
+                    }
+                }));
+            }
+
+            List<OcrEngine.Recognition> results = new ArrayList<>(blocks.size());
+            results.add(recognizeBlock(crop(pixels, blocks.get(0)), dpi, withWords));
+            for (Future<OcrEngine.Recognition> other : others) {
+                results.add(other.get());
+            }
+            return stitch(blocks, results);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TesseractException te) throw te;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new TesseractException("Falha no OCR de um bloco: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("OCR da página interrompido");
+        } finally {
+            // os blocos leem direto o buffer da pagina, que é reaproveitado: só sai daqui quando nenhum estiver rodando
+            abort.set(true);
+            for (int i = others.size(); i < blocks.size() - 1; i++) running.countDown(); // não enviados (erro no submit)
+            awaitUninterruptibly(running);
+        }
     }
 
-    // limpa o texto (linhas e simbolos especiais) a partir de alguns casos
-    public Map<String, Object> cleanText(String textOCR) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        String[] lines = textOCR.split("\\r?\\n");
+    // :dpi da renderização, passado ao Tesseract (tamanho esperado das letras)
+    private OcrEngine.Recognition recognizeBlock(PagePreprocessor.Pixels pixels, int dpi, boolean withWords) throws TesseractException {
+        return withWords
+                ? recognize(engine -> engine.recognizeWords(pixels, dpi))
+                : new OcrEngine.Recognition(recognize(engine -> engine.doOCR(pixels, dpi)), List.of());
+    }
 
-        int numLine = 1; // contador de linha
+    private static PagePreprocessor.Pixels crop(PagePreprocessor.Pixels pixels, PageLayout.Block block) {
+        return pixels.crop(block.x(), block.y(), block.width(), block.height());
+    }
 
+    // espera as tarefas terminarem, mesmo com a thread interrompida
+    private static void awaitUninterruptibly(CountDownLatch running) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                running.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
 
-        for (String line : lines) {
-            String clean = line.trim();
+    // junta os blocos na ordem de leitura; as posições das palavras voltam para a pagina inteira
+    private static OcrEngine.Recognition stitch(List<PageLayout.Block> blocks, List<OcrEngine.Recognition> results) {
+        StringBuilder text = new StringBuilder();
+        List<OcrWord> words = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            PageLayout.Block block = blocks.get(i);
+            OcrEngine.Recognition result = results.get(i);
+
+            String blockText = result.text().strip();
+            if (!blockText.isEmpty()) text.append(blockText).append("\n\n");
+            for (OcrWord word : result.words()) {
+                words.add(new OcrWord(word.text(), word.confidence(), word.x() + block.x(), word.y() + block.y(),
+                        word.width(), word.height()));
+            }
+        }
+        return new OcrEngine.Recognition(text.toString(), words);
+    }
 
-            // todos os sout são log para debug
-            System.out.println("📝 Linha " + numLine + ": \"" + clean + "\"");
+    // estagio recognize: inclui a espera por um motor livre no pool
+    private <T> T recognize(TesseractPool.EngineTask<T> task) throws TesseractException {
+        long start = System.nanoTime();
+        try {
+            return tesseractPool.execute(task);
+        } finally {
+            metrics.record(OcrMetrics.Stage.RECOGNIZE, start);
+        }
+    }
 
-            // limpa tudo que está entre os colchetes []
-            clean = clean.replaceAll("[=>'\"—!]", "");
+    // chave do texto de uma pagina no cache: muda junto com o idioma, o modo do motor, o DPI, o layout e o pré-processamento (:variant)
+    private String pageCacheKey(int pageNum, String variant, boolean forceOcr) {
+        return "page:" + pageNum + ":" + variant + ":" + forceOcr + ":" + tesseractPool.getDefaultLanguage()
+                + ":" + tesseractPool.getEngineMode() + ":" + dpiKey() + layoutKey();
+    }
 
-            // caso de poucos caracteres
-            if (clean.length() < 6) {
-                System.out.println("⛔ Rejeitada (muito curta: " + clean.length() + " caracteres)");
-                numLine++;
-                continue;
-            }
+    // com o layout o texto é costurado por blocos (e o limite de blocos decide quando a pagina vai inteira)
+    // sem layout a chave fica igual à de antes, as entradas já gravadas continuam valendo
+    private String layoutKey() {
+        return layoutEnabled ? ":layout-" + layout.maxBlocks() : "";
+    }
 
+    // no modo adaptativo a resolução final depende dos limites, eles entram na chave
+    private String dpiKey() {
+        if (!adaptiveDpi) return String.valueOf(OCR_DPI);
+        return "adaptive-" + firstPassDpi() + "-" + OCR_DPI + "-" + minPageConfidence + "-" + minTextHeight;
+    }
 
+    // texto da pagina no cache, guardado como "METODO DPI\ntexto"; as palavras do OCR ficam em outra entrada (:key + ":words")
+    private PageText cachedPage(String hash, String key, int pageNum) {
+        if (hash == null) return null;
 
-            // caso de letras muito repetidas
-            String lineWhitoutNumbers = clean.replaceAll("[0-9]", "");
+        String value = cache.get(hash, key).orElse(null);
+        if (value == null) return null;
 
-            java.util.regex.Pattern p = java.util.regex.Pattern.compile("(.)\\1{2,}");
-            java.util.regex.Matcher m = p.matcher(lineWhitoutNumbers);
+        int separator = value.indexOf('\n');
+        String[] header = value.substring(0, separator).split(" ");
+        ExtractionMethod method = ExtractionMethod.valueOf(header[0]);
+        // entradas antigas (só "METODO") são do OCR fixo em OCR_DPI
+        Integer dpi = header.length > 1 ? Integer.valueOf(header[1]) : method == ExtractionMethod.OCR ? OCR_DPI : null;
+        return new PageText(pageNum, value.substring(separator + 1), method, cachedWords(hash, key), dpi);
+    }
 
-            boolean reject = false;
+    // entradas antigas, sem palavras, continuam valendo (a correção volta para a regra da frequencia)
+    private List<OcrWord> cachedWords(String hash, String key) {
+        String value = cache.get(hash, key + ":words").orElse(null);
+        if (value == null) return List.of();
+        try {
+            return JSON.readValue(value, new TypeReference<List<OcrWord>>() {});
+        } catch (IOException e) {
+            log.warn("Palavras do cache OCR ilegíveis ({}): {}", key, e.getMessage());
+            return List.of();
+        }
+    }
 
-            while (m.find()) {
-                String repeated = m.group(1);
-                int repeatedQuantity = m.group(0).length();
+    private void cachePage(String hash, String key, PageText page) {
+        if (hash == null) return;
+        String header = page.dpi() == null ? page.method().name() : page.method().name() + " " + page.dpi();
+        cache.put(hash, key, header + "\n" + page.text());
+        if (page.words().isEmpty()) return;
+        try {
+            cache.put(hash, key + ":words", JSON.writeValueAsString(page.words()));
+        } catch (IOException e) {
+            log.warn("Falha ao gravar as palavras da página {} no cache: {}", page.page(), e.getMessage());
+        }
+    }
 
-                // Ignorar repetições de espaço e ponto
-                if (repeated.equals(" ") || repeated.equals(".")) {
-                    System.out.println("ℹ Ignorado: repetição de '" + repeated + "' (" + repeatedQuantity + " vezes)");
-                    continue;
-                }
+    // estagio emit: gera o pdf da pagina (PAGES) ou acrescenta a pagina em :output, na ordem em que as paginas foram pedidas
+    private PageResult emitPage(RecognizedPage page, PDDocument document, OutputMode mode, PdfOutput output) throws IOException {
+        if (mode == OutputMode.PAGES) {
+            // cria um PDF individual com o texto
+            Path pdf = storage.newFile("ocr_pagina_" + page.pageNum());
+            toPdf(page.text(), pdf.toFile());
 
-                System.out.println("⛔ Rejeitada (repetição exagerada: caractere '" + repeated + "' repetido " + repeatedQuantity + " vezes seguidas)");
-                reject = true;
-            }
+            // gera link para efetuar download do pdf
+            return new PageResult(page.pageNum(), storage.link(pdf), page.method(), page.dpi());
+        }
 
-            // caso de muitas palavras pequenas e seguidas (incluindo números)
-            String[] words = clean.split("\\s+");
-            int maxConsecutive = 0;
-            int currentConsecutive = 0;
-
-            for (String w : words) {
-                // considera palavra pequena se for tamanho 1 ou for só números
-                if (w.length() <= 2 || w.matches("\\d+")) {
-                    currentConsecutive++;
-                    if (currentConsecutive > maxConsecutive) {
-                        maxConsecutive = currentConsecutive;
-                    }
-                } else {
-                    currentConsecutive = 0;
+        long start = System.nanoTime();
+        try {
+            if (mode == OutputMode.SEARCHABLE) {
+                // camada de texto do proprio PDF já é pesquisavel, só as paginas do OCR ganham as palavras
+                synchronized (document) {
+                    output.addSearchable(document.getPage(page.pageNum() - 1), page.words(), page.dpi());
                 }
+            } else {
+                output.addText(page.text());
             }
+        } finally {
+            metrics.record(OcrMetrics.Stage.PDF, start);
+        }
+        // todas as paginas apontam para o mesmo arquivo, disponivel quando o documento termina
+        return new PageResult(page.pageNum(), storage.link(output.target()), page.method(), page.dpi());
+    }
 
+    private void save(PdfOutput output) throws IOException {
+        long start = System.nanoTime();
+        try {
+            output.save();
+        } finally {
+            metrics.record(OcrMetrics.Stage.PDF, start);
+        }
+    }
 
 
+    // metodo basico, para extrair texto de imagem e arquivo
+    public String ocr(BufferedImage image) {
+        try {
+            // usa um motor já inicializado do pool
+            String result = recognize(engine -> engine.doOCR(image));
 
-            // ignora rejeição se houver pelo menos uma palavra grande (6+ caracteres)
-            long countBigWords = Arrays.stream(words)
-                    .filter(w -> w.length() >= 6)
-                    .count();
+            return "Texto detectado:\n" + result;
+        } catch (TesseractException e) {
+            return "Erro ao fazer OCR: " + e.getMessage();
+        }
+    }
 
-            if (countBigWords < 2 && maxConsecutive > 2) {
-                System.out.println("⛔ Rejeitada (mais de 2 palavras pequenas consecutivas e menos de 2 grandes)");
-                numLine++;
-                continue;
-            }
 
+    // deixa a imagem mais nitida (devolve em tons de cinza)
+    public BufferedImage sharp(BufferedImage image) {
+        return preprocessor.sharpen(image);
+    }
 
+    // limpa o texto e sugere correções; o mesmo texto devolve o resultado do cache (limpo quando o dicionario muda)
+    public Map<String, Object> cleanText(String textOCR) throws IOException {
+        return cleanText(textOCR, List.of());
+    }
 
-            if (reject) {
-                numLine++;
-                continue;
-            }
+    // :words são as palavras do OCR com a confiança do Tesseract, só as de baixa confiança recebem sugestões
+    public Map<String, Object> cleanText(String textOCR, List<OcrWord> words) throws IOException {
+        Map<String, Float> confidences = confidences(words);
 
+        // o resultado depende também de quais palavras o Tesseract reconheceu com confiança
+        String key = confidences.isEmpty() ? textOCR : textOCR + "\nconfidences:" + minConfidence + ":" + new TreeMap<>(confidences);
+        String cached = cache.get(OcrCache.TEXT_GROUP, key).orElse(null);
+        if (cached != null) {
+            return JSON.readValue(cached, new TypeReference<Map<String, Object>>() {});
+        }
 
+        Map<String, Object> result = textCorrector(filterLines(textOCR), confidences);
+        cache.put(OcrCache.TEXT_GROUP, key, JSON.writeValueAsString(result));
+        return result;
+    }
 
-            System.out.println("✅ Mantida");
-            sb.append(clean).append("\n");
-            numLine++;
+    // menor confiança de cada palavra (normalizada como no textCorrector) entre todas as ocorrencias
+    private static Map<String, Float> confidences(List<OcrWord> words) {
+        Map<String, Float> confidences = new HashMap<>();
+        for (OcrWord word : words) {
+            String normalized = normalizeWord(word.text());
+            if (normalized.isEmpty()) continue;
+            confidences.merge(normalized, word.confidence(), Math::min);
         }
+        return confidences;
+    }
+
+    // palavra sem acentos, pontuação e simbolos, em minusculas
+    static String normalizeWord(String word) {
+        return Normalizer.normalize(word, Normalizer.Form.NFD)
+                .replaceAll("[\\p{M}\\p{P}\\p{S}]", "")
+                .toLowerCase();
+    }
 
-        return textCorrector(sb.toString());
+    // limpa o texto (linhas e simbolos especiais) a partir de alguns casos, regras em LineClassifier
+    private String filterLines(String textOCR) {
+        long start = System.nanoTime();
+        String kept = LineClassifier.filter(textOCR, (numLine, verdict) -> {
+            // log detalhado só com DEBUG ligado (logging.level.com.myproject.ocr=DEBUG)
+            log.debug("Linha {}: {}", numLine, verdict);
+            metrics.line(verdict);
+        });
+        metrics.record(OcrMetrics.Stage.CLEAN, start);
+        return kept;
     }
 
     // salva o texto em um arquivo pdf
     public void toPdf(String text, File fileDestination) throws IOException {
-        try (PDDocument doc = new PDDocument()) {
-            // add pagina
-            PDPage page = new PDPage();
-            doc.addPage(page);
-
-            // formatações
-            PDPageContentStream content = new PDPageContentStream(doc, page);
-            content.beginText();
-            content.setFont(PDType1Font.HELVETICA, 12);
-            content.setLeading(14.5f);
-            content.newLineAtOffset(50, 700);
-
-            String[] linhas = text.split("\\r?\\n");
-            int linhasPorPagina = 45;
-            int cont = 0;
-
-            // preenche linha por linha
-            for (String linha : linhas) {
-                if (cont >= linhasPorPagina) {
-                    content.endText();
-                    content.close();
-
-                    page = new PDPage();
-                    doc.addPage(page);
-                    content = new PDPageContentStream(doc, page);
-                    content.beginText();
-                    content.setFont(PDType1Font.HELVETICA, 12);
-                    content.setLeading(14.5f);
-                    content.newLineAtOffset(50, 700);
-                    cont = 0;
-                }
+        long start = System.nanoTime();
+        try (PdfOutput output = new PdfOutput(fileDestination.toPath(), MemoryUsageSetting.setupMainMemoryOnly())) {
+            output.addText(text);
+            output.save();
+        } finally {
+            metrics.record(OcrMetrics.Stage.PDF, start);
+        }
+    }
 
-                content.showText(linha);
-                content.newLine();
-                cont++;
+    // tranforma pdf em String
+    public String toStringOf(MultipartFile file) {
+        try {
+            StringBuilder result = new StringBuilder();
+            for (PageText page : extractPages(file, false)) {
+                result.append(page.text()).append("\n\n");
             }
+            return result.toString();
 
-            content.endText();
-            content.close();
-
-            doc.save(fileDestination);
+        } catch (Exception e) {
+            return "Erro ao processar PDF com OCR: " + e.getMessage();
         }
     }
 
-    // tranforma pdf em String
-    public String toStringOf(MultipartFile file) {
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("C:/Program Files/Tesseract-OCR/tessdata");
-        tesseract.setLanguage("por");
+    // extrai o texto de todas as paginas, usando a camada de texto quando existir (a menos que :forceOcr)
+    public List<PageText> extractPages(MultipartFile file, boolean forceOcr) throws IOException, TesseractException {
+        return extractPages(file.getInputStream(), forceOcr);
+    }
 
-        StringBuilder result = new StringBuilder();
+    @SuppressWarnings("try")
+    public List<PageText> extractPages(InputStream in, boolean forceOcr) throws IOException, TesseractException {
+        List<PageText> pages = new ArrayList<>();
+        MessageDigest digest = OcrCache.newDigest();
 
-        try (PDDocument document = PDDocument.load(file.getInputStream())) {
+        try (PDDocument document = loadDocument(in, digest);
+             OcrAdmission.Permit permit = admit(largestPagePixels(document))) {
             PDFRenderer renderer = new PDFRenderer(document);
+            String hash = OcrCache.hex(digest);
 
             for (int i = 0; i < document.getNumberOfPages(); i++) {
-                BufferedImage image = renderer.renderImageWithDPI(i, 300);
-                String text = tesseract.doOCR(image);
-                result.append(text).append("\n\n");
+                int pageNum = i + 1;
+                String key = pageCacheKey(pageNum, "raw", forceOcr);
+
+                PageText cached = cachedPage(hash, key, pageNum);
+                if (cached != null) {
+                    metrics.page(cached.method(), true);
+                    textIndex.add(hash, cached);
+                    pages.add(cached);
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                TextLayerDetector.TextLayer layer = forceOcr ? null : textLayerDetector.analyze(document, pageNum);
+                if (layer != null && layer.usable()) {
+                    metrics.record(OcrMetrics.Stage.RENDER, start);
+                    PageText page = new PageText(pageNum, layer.text(), ExtractionMethod.TEXT_LAYER);
+                    cachePage(hash, key, page);
+                    metrics.page(ExtractionMethod.TEXT_LAYER, false);
+                    textIndex.add(hash, page);
+                    pages.add(page);
+                    continue;
+                }
+
+                int dpi = firstPassDpi();
+                int pageIndex = i;
+                BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi, ImageType.GRAY);
+                metrics.record(OcrMetrics.Stage.RENDER, start);
+                Pass pass = recognizeAdaptive(image, dpi,
+                        highDpi -> renderer.renderImageWithDPI(pageIndex, highDpi, ImageType.GRAY),
+                        (rendered, renderedDpi) -> layoutEnabled
+                                ? preprocessor.gray(rendered, pixels -> recognizePixels(pixels, renderedDpi, true))
+                                : recognize(engine -> engine.recognizeWords(rendered, renderedDpi)));
+                PageText page = new PageText(pageNum, pass.recognition().text(), ExtractionMethod.OCR, pass.recognition().words(), pass.dpi());
+                cachePage(hash, key, page);
+                metrics.page(ExtractionMethod.OCR, false);
+                textIndex.add(hash, page);
+                pages.add(page);
             }
+        }
 
-            return result.toString();
+        return pages;
+    }
 
-        } catch (Exception e) {
-            return "Erro ao processar PDF com OCR: " + e.getMessage();
+    // uma pagina por vez: o custo é o da maior
+    private static long largestPagePixels(PDDocument document) {
+        long largest = 0;
+        for (int pageNum = 1; pageNum <= document.getNumberOfPages(); pageNum++) {
+            largest = Math.max(largest, pagePixels(document, pageNum));
+        }
+        return largest;
+    }
+
+    private OcrAdmission.Permit admit(long pixels) throws IOException {
+        try {
+            return admission.admit(pixels);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido esperando vaga para o OCR", e);
         }
     }
 
     // identifica e chama meetodo para sugerir correções
     public Map<String, Object> textCorrector(String textOCR) throws IOException {
+        return textCorrector(textOCR, Map.of());
+    }
+
+    // :confidences = menor confiança do Tesseract por palavra normalizada (vazio para texto sem OCR)
+    public Map<String, Object> textCorrector(String textOCR, Map<String, Float> confidences) throws IOException {
+        long start = System.nanoTime();
+        int ignored = 0;
+        int confident = 0;
         Map<String, Integer> count = new HashMap<>();
         List<String> words = new ArrayList<>();
-        Set<String> dictionary = loadDictionary("src/main/resources/static/ocr/br-utf8.txt");
 
         // pecorree palavras separadas por espaço
         for (String word : textOCR.split("\\s+")) {
@@ -311,7 +863,8 @@ public class OcrService {
             if (normalized.matches("^[^0-9]+$")) {
                 words.add(normalized);
             } else {
-                System.out.println("🔕 Ignorada da contagem: " + word);
+                log.debug("Ignorada da contagem: {}", word);
+                ignored++;
             }
         }
 
@@ -330,31 +883,43 @@ public class OcrService {
             String word = p.getKey();
             int frequency = p.getValue();
 
-            String normalizedWord = Normalizer.normalize(word, Normalizer.Form.NFD)
-                    .replaceAll("[\\p{M}\\p{P}\\p{S}]", "");
+            String normalizedWord = normalizeWord(word);
 
             if (normalizedWord.isEmpty()) continue;
 
-            boolean isInDictionary = dictionary.stream()
-                    .map(d -> Normalizer.normalize(d, Normalizer.Form.NFD).replaceAll("\\p{M}", ""))
-                    .anyMatch(dNorm -> dNorm.equalsIgnoreCase(normalizedWord));
+            // o Tesseract teve confiança na palavra: não precisa de correção
+            Float confidence = confidences.get(normalizedWord);
+            if (confidence != null && confidence >= minConfidence) {
+                reliableWords.add(normalizedWord);
+                confident++;
+                log.debug("Palavra confiável pelo OCR: {} ({})", normalizedWord, confidence);
+                continue;
+            }
+
+            // busca direta pela forma sem acento (o dicionario já vem indexado)
+            boolean isInDictionary = dictionary.contains(normalizedWord);
 
             if (frequency > 1 || isInDictionary) {
                 reliableWords.add(normalizedWord);
-                System.out.println("✅ Palavra confiável: " + normalizedWord + " (" + frequency + " vezes)");
+                log.debug("Palavra confiável: {} ({} vezes)", normalizedWord, frequency);
             } else {
-                System.out.println("🟡 Palavra suspeita: " + normalizedWord);
+                log.debug("Palavra suspeita: {}", normalizedWord);
                 suspiciousWords.add(normalizedWord);
             }
         }
 
-        Map<String, List<String>> corrections = suggestMultipleCorrections(suspiciousWords, reliableWords, dictionary);
+        Map<String, List<String>> corrections = suggestMultipleCorrections(suspiciousWords, reliableWords);
 
         // retorna um mapa com o texto original e as sugestões
         Map<String, Object> result = new HashMap<>();
         result.put("original", textOCR);
         result.put("corrections", corrections);
 
+        metrics.words("ignored", ignored);
+        metrics.words("reliable", reliableWords.size());
+        metrics.words("confident", confident);
+        metrics.words("suspicious", suspiciousWords.size());
+        metrics.record(OcrMetrics.Stage.CORRECT, start);
         return result;
     }
 
@@ -362,98 +927,54 @@ public class OcrService {
 
 
     // sugere até 5 palavras, 5 encontradas no texto(context) e 5 do dicionario
-    public Map<String, List<String>> suggestMultipleCorrections(Set<String> suspiciousWords, Set<String> reliableWords, Set<String> dictionary) {
+    public Map<String, List<String>> suggestMultipleCorrections(Set<String> suspiciousWords, Set<String> reliableWords) {
         Map<String, List<String>> suggestions = new HashMap<>();
         LevenshteinDistance lv = new LevenshteinDistance();
 
+        // as palavras confiaveis são normalizadas uma vez só, não a cada palavra suspeita
+        Map<String, String> reliablesWithoutAccent = new HashMap<>();
+        for (String term : reliableWords) {
+            reliablesWithoutAccent.put(term, OcrDictionary.fold(term));
+        }
+
         for (String word : suspiciousWords) {
-            String wordWithoutAccent = Normalizer.normalize(word, Normalizer.Form.NFD)
-                    .replaceAll("\\p{M}", "")
-                    .toLowerCase();
+            String wordWithoutAccent = OcrDictionary.fold(word);
 
-            // Primeiro tenta no conjunto de confiaveis
+            // Primeiro tenta no conjunto de confiaveis: uma passada calcula todas as distancias
             Map<Integer, List<String>> reliablesMap = new TreeMap<>();
-            int totalSuggested = 0;
-
             boolean encontrouDistanciaBoa = false;
 
-            for (int currentDistance = 0; currentDistance <= 10 && totalSuggested < 5; currentDistance++) {
-                for (String term : reliableWords) {
-                    if (totalSuggested >= 5) break;
-
-                    String termWithoutAccent = Normalizer.normalize(term, Normalizer.Form.NFD)
-                            .replaceAll("\\p{M}", "")
-                            .toLowerCase();
-
-                    int distance = lv.apply(wordWithoutAccent, termWithoutAccent);
+            for (Map.Entry<String, String> reliable : reliablesWithoutAccent.entrySet()) {
+                int distance = lv.apply(wordWithoutAccent, reliable.getValue());
+                if (distance > 10) continue;
 
-                    // Se encontrou uma sugestão com distância até 2, libera qualquer diff
-                    if (distance <= 2) encontrouDistanciaBoa = true;
+                // Se encontrou uma sugestão com distância até 2, libera qualquer diff
+                if (distance <= 2) encontrouDistanciaBoa = true;
 
-                    int diff = termWithoutAccent.length() - wordWithoutAccent.length();
-
-                    // Só bloqueia diferenças grandes se ainda não achou nenhuma boa
-                    if (!encontrouDistanciaBoa && (diff < -2 || diff > 4)) continue;
-
-                    if (distance != currentDistance) continue;
-
-                    List<String> list = reliablesMap.computeIfAbsent(distance, k -> new ArrayList<>());
-                    list.add(term);
-                    totalSuggested++;
-                }
+                reliablesMap.computeIfAbsent(distance, k -> new ArrayList<>()).add(reliable.getKey());
             }
 
-
-            // Agora no dicionário
-            Map<Integer, List<String>> dictionaryMap = new TreeMap<>();
-            totalSuggested = 0;
-
-            for (int currentDistance = 0; currentDistance <= 10 && totalSuggested < 5; currentDistance++) {
-                for (String term : dictionary) {
-                    if (totalSuggested >= 5) break; // garante o limite global
-
-                    String termWithoutAccent = Normalizer.normalize(term, Normalizer.Form.NFD)
-                            .replaceAll("\\p{M}", "")
-                            .toLowerCase();
-                    int distance = lv.apply(wordWithoutAccent, termWithoutAccent);
-                    if (distance != currentDistance) continue;
-                    if (distance <= 2) encontrouDistanciaBoa = true;
-
-                    int diff = termWithoutAccent.length() - wordWithoutAccent.length();
-
-                    if (!encontrouDistanciaBoa && (diff < -2 || diff > 4)) continue;
-
-                    List<String> list = dictionaryMap.computeIfAbsent(distance, k -> new ArrayList<>());
-
-                    list.add(term);
-                    totalSuggested++; // incrementa corretamente
-                }
-            }
-
-
-
             List<String> reliablesList = new ArrayList<>();
             outerReliables:
             for (List<String> l : reliablesMap.values()) {
                 for (String s : l) {
                     if (reliablesList.size() >= 5) break outerReliables;
+
+                    int diff = reliablesWithoutAccent.get(s).length() - wordWithoutAccent.length();
+
+                    // Só bloqueia diferenças grandes se ainda não achou nenhuma boa
+                    if (!encontrouDistanciaBoa && (diff < -2 || diff > 4)) continue;
+
                     reliablesList.add(s);
                 }
             }
 
-            List<String> dictionaryList = new ArrayList<>();
-            outerDictionary:
-            for (List<String> l : dictionaryMap.values()) {
-                for (String i : l) {
-                    if (dictionaryList.size() >= 5) break outerDictionary;
-                    dictionaryList.add(i);
-                }
-            }
+            // Agora no dicionário, direto pelo indice (sem varrer as 261 mil palavras)
+            // essa parte não depende do documento, vem do cache compartilhado do DictionaryIndex
+            List<String> dictionaryList = dictionaryIndex.suggest(wordWithoutAccent, 5, 10, encontrouDistanciaBoa);
 
             // Log das sugestões
-            System.out.println("🔎 Sugestões para palavra suspeita '" + word + "':");
-            System.out.println("  Confiáveis: " + reliablesList);
-            System.out.println("  Dicionário: " + dictionaryList);
+            log.debug("Sugestões para '{}': confiáveis={} dicionário={}", word, reliablesList, dictionaryList);
 
             // Junta tudo e adiciona no mapa final
             List<String> combined = new ArrayList<>();
@@ -471,15 +992,21 @@ public class OcrService {
 
     // dicionario
     public static Set<String> loadDictionary(String caminho) throws IOException {
+        try (InputStream in = new FileInputStream(caminho)) {
+            return loadDictionary(in);
+        }
+    }
+
+    public static Set<String> loadDictionary(InputStream in) throws IOException {
         Set<String> dictionary = new HashSet<>();
-        try (BufferedReader r = new BufferedReader(new FileReader(caminho))) {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
             String l;
             while ((l = r.readLine()) != null) {
                 String p = l.trim().toLowerCase();
                 if (!p.isEmpty()) dictionary.add(p);
             }
         }
-        System.out.println("📘 Dicionário carregado: " + dictionary.size() + " palavras");
+        log.info("Dicionário carregado: {} palavras", dictionary.size());
         return dictionary;
     }
 
@@ -0,0 +1,135 @@
+package com.myproject.ocr;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// pdfs gerados pelo OCR, servidos pelo GET /ocr/{arquivo}
+// ficam em ocr.output.dir (fora do classpath) e são removidos por idade (ttl) ou quando a pasta passa do tamanho maximo
+@Component
+public class OcrStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrStorage.class);
+
+    // só nomes gerados aqui, sem separadores (nada de ../)
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,128}\\.pdf");
+
+    @Value("${ocr.output.dir:${java.io.tmpdir}/ocr-output}")
+    private String outputDir;
+
+    @Value("${ocr.output.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${ocr.output.ttl-hours:24}")
+    private long ttlHours;
+
+    // prefixo dos links devolvidos pelo /ocr
+    @Value("${ocr.output.base-url:http://localhost:8080/ocr/}")
+    private String baseUrl;
+
+    private Path dir;
+
+    @PostConstruct
+    void init() throws IOException {
+        dir = Path.of(outputDir);
+        Files.createDirectories(dir);
+    }
+
+    // caminho para um novo pdf, nome unico começando com :prefix (o arquivo ainda não existe)
+    public Path newFile(String prefix) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return dir.resolve(prefix + "_" + System.currentTimeMillis() + "_" + suffix + ".pdf");
+    }
+
+    public String link(Path file) {
+        return baseUrl + file.getFileName();
+    }
+
+    // pdf pronto com o nome :name, vazio se o nome for invalido, ainda estiver sendo gerado ou já tiver sido removido
+    public Optional<Path> find(String name) {
+        if (!NAME.matcher(name).matches()) return Optional.empty();
+        Path file = dir.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    // pdf de um link devolvido por link()
+    public Optional<Path> fromLink(String link) {
+        return find(link.substring(link.lastIndexOf('/') + 1));
+    }
+
+    // remove os pdfs vencidos e, se ainda passar do limite, os mais antigos
+    // os .part (documentos em construção) só saem pela idade
+    @Scheduled(fixedDelayString = "${ocr.output.sweep-interval-ms:600000}")
+    void sweep() {
+        record Entry(Path file, long size, long lastModified) {
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        int removed = 0;
+        for (Path file : files()) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                long size = Files.size(file);
+                if (expired(modified)) {
+                    if (delete(file)) removed++;
+                    continue;
+                }
+                total += size;
+                if (file.getFileName().toString().endsWith(".pdf")) entries.add(new Entry(file, size, modified.toMillis()));
+            } catch (IOException e) {
+                // removido por outra thread durante a varredura
+            }
+        }
+
+        if (total > maxBytes) {
+            entries.sort(Comparator.comparingLong(Entry::lastModified));
+            for (Entry entry : entries) {
+                if (total <= maxBytes) break;
+                if (delete(entry.file())) {
+                    total -= entry.size();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) log.info("{} PDFs de saída removidos de {}", removed, dir);
+    }
+
+    private boolean expired(FileTime modified) {
+        return ttlHours > 0 && System.currentTimeMillis() - modified.toMillis() > TimeUnit.HOURS.toMillis(ttlHours);
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(Files::isRegularFile).toList();
+        } catch (IOException | UncheckedIOException e) {
+            return List.of();
+        }
+    }
+
+    private boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Falha ao remover o PDF de saída {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
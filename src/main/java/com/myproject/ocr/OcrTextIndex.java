@@ -0,0 +1,191 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// texto das paginas guardado no banco (JPA) com um indice invertido por termo sem acento
+// o OCR só coloca a pagina numa fila em memoria (não bloqueia); a gravação é em lote, a cada ocr.index.flush-interval-ms
+@Service
+public class OcrTextIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrTextIndex.class);
+
+    // prefixo que o getOcr coloca no texto das paginas, não entra no indice
+    private static final String DETECTED_PREFIX = "Texto detectado:\n";
+
+    @Autowired
+    private StoredPageRepository pages;
+
+    @Autowired
+    private IndexedTermRepository terms;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
+    @Value("${ocr.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ocr.index.batch-size:200}")
+    private int batchSize;
+
+    // paginas esperando a gravação; cheia, as novas ficam sem indice
+    @Value("${ocr.index.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Pending> pending;
+
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private record Pending(String hash, PageText page) {
+    }
+
+    // pagina encontrada na busca, :snippet é o trecho em volta do primeiro termo
+    public record Hit(String document, int page, double score, int matchedTerms, ExtractionMethod method, String snippet) {
+    }
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // chamado no caminho do OCR: só enfileira; paginas sem documento (hash) ou com erro ficam de fora
+    public void add(String hash, PageText page) {
+        if (!enabled || hash == null || page.text() == null || page.text().startsWith("Erro ao fazer OCR")) return;
+        // fila cheia: a pagina fica sem indice, mas o OCR não espera pelo banco
+        if (!pending.offer(new Pending(hash, page))) dropped.increment();
+    }
+
+    // grava as paginas pendentes em lotes de ocr.index.batch-size, uma transação por lote (também no desligamento)
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${ocr.index.flush-interval-ms:2000}")
+    public void flush() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            long start = System.currentTimeMillis();
+            try {
+                int written = transaction.execute(status -> write(batch));
+                indexed.add(written);
+                log.debug("{} páginas indexadas em {} ms", written, System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar {} páginas no índice: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    // só regrava as paginas cujo texto mudou (a mesma pagina processada de novo não mexe no indice)
+    private int write(List<Pending> batch) {
+        // a mesma pagina duas vezes no lote: vale a ultima
+        Map<String, Pending> latest = new LinkedHashMap<>();
+        for (Pending item : batch) latest.put(item.hash() + ":" + item.page().page(), item);
+
+        int written = 0;
+        for (Pending item : latest.values()) {
+            String text = stripPrefix(item.page().text());
+            StoredPage stored = pages.findByDocumentHashAndPage(item.hash(), item.page().page())
+                    .orElseGet(() -> new StoredPage(item.hash(), item.page().page()));
+            if (text.equals(stored.getText())) continue;
+
+            stored.setText(text);
+            stored.setMethod(item.page().method());
+            stored.setDpi(item.page().dpi());
+            stored.setIndexedAt(System.currentTimeMillis());
+            stored = pages.save(stored);
+
+            terms.deleteByPage(stored);
+            List<IndexedTerm> entries = new ArrayList<>();
+            for (Map.Entry<String, Integer> term : termFrequencies(text).entrySet()) {
+                entries.add(new IndexedTerm(term.getKey(), stored, term.getValue()));
+            }
+            terms.saveAll(entries);
+            written++;
+        }
+        return written;
+    }
+
+    // paginas com os termos de :query, mais termos encontrados primeiro e depois por tf-idf
+    // a pontuação e o limite ficam no banco: só o texto das :limit paginas do resultado é carregado (para o trecho)
+    public List<Hit> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(termFrequencies(query).keySet());
+        if (queryTerms.isEmpty() || limit <= 0) return List.of();
+
+        long totalPages = Math.max(1, pages.count());
+        List<Object[]> ranked = terms.rank(queryTerms, totalPages, limit);
+        if (ranked.isEmpty()) return List.of();
+
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Object[] row : ranked) ids.add(((Number) row[0]).longValue());
+        Map<Long, StoredPage> found = new HashMap<>();
+        for (StoredPage page : pages.findAllById(ids)) found.put(page.getId(), page);
+
+        List<Hit> hits = new ArrayList<>(ranked.size());
+        for (Object[] row : ranked) {
+            StoredPage page = found.get(((Number) row[0]).longValue());
+            // reindexada entre as duas consultas
+            if (page == null) continue;
+            hits.add(new Hit(page.getDocumentHash(), page.getPage(), ((Number) row[2]).doubleValue(), ((Number) row[1]).intValue(),
+                    page.getMethod(), snippet(page.getText(), queryTerms)));
+        }
+        return hits;
+    }
+
+    // mesma normalização do textCorrector: sem acentos, pontuação e simbolos, minusculas;
+    // palavras com numeros e letras isoladas ficam de fora
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String word : text.split("\\s+")) {
+            String term = OcrService.normalizeWord(word);
+            if (term.length() <= 1 || term.length() > 64 || !term.matches("^[^0-9]+$")) continue;
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    // ~160 caracteres em volta da primeira palavra que normaliza para um dos :terms
+    static String snippet(String text, Set<String> terms) {
+        if (text == null) return null;
+        int offset = 0;
+        for (String word : text.split("(?<=\\s)")) {
+            if (terms.contains(OcrService.normalizeWord(word.strip()))) break;
+            offset += word.length();
+        }
+        if (offset >= text.length()) offset = 0;
+        int start = Math.max(0, offset - 80);
+        int end = Math.min(text.length(), offset + 80);
+        return text.substring(start, end).replaceAll("\\s+", " ").strip();
+    }
+
+    private static String stripPrefix(String text) {
+        return text.startsWith(DETECTED_PREFIX) ? text.substring(DETECTED_PREFIX.length()) : text;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ocr.index.pending", pending, BlockingQueue::size).register(registry);
+        FunctionCounter.builder("ocr.index.pages", indexed, LongAdder::sum).register(registry);
+        FunctionCounter.builder("ocr.index.dropped", dropped, LongAdder::sum).register(registry);
+    }
+}
@@ -0,0 +1,170 @@
+package com.myproject.ocr;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+// aquecimento na subida: dicionario, motores do Tesseract e paginas sinteticas passando pelo mesmo caminho das enviadas
+// (render -> sharpen/recognize no ocrExecutor -> clean -> correct), o que carrega o OpenCV e compila os pontos quentes (JIT)
+// roda em paralelo com o resto da subida do Spring
+// a prontidão (/actuator/health/readiness, grupo com "ocrWarmup") só fica UP quando termina
+@Component("ocrWarmup")
+public class OcrWarmup implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrWarmup.class);
+
+    // texto da pagina sintetica, com acentos e palavras do dicionario
+    private static final String[] LINES = {
+            "Contrato de prestação de serviços técnicos",
+            "O contratante declara estar ciente das condições",
+            "descritas neste documento e concorda com os prazos",
+            "estabelecidos para a entrega dos relatórios mensais.",
+            "Assinatura das partes e testemunhas presentes."
+    };
+
+    @Autowired
+    private TesseractPool tesseractPool;
+
+    @Autowired
+    private OcrDictionary dictionary;
+
+    @Autowired
+    private DictionaryIndex dictionaryIndex;
+
+    @Autowired
+    private OcrService ocrService;
+
+    // o pré-processamento guarda Mats nativos por thread: só nas threads do ocrExecutor, que vivem com a aplicação
+    @Autowired
+    @Qualifier("ocrExecutor")
+    private ExecutorService ocrExecutor;
+
+    // false: só cria os motores minimos do pool, sem a pagina sintetica
+    @Value("${ocr.warmup.enabled:true}")
+    private boolean enabled;
+
+    // em thread separada (não atrasa a subida do contexto); false roda antes do contexto terminar de subir
+    @Value("${ocr.warmup.async:true}")
+    private boolean async;
+
+    // passadas da pagina sintetica
+    @Value("${ocr.warmup.iterations:2}")
+    private int iterations;
+
+    private volatile boolean done;
+
+    // tempo de cada etapa (ms), na ordem
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+
+    @PostConstruct
+    void start() {
+        if (!async) {
+            run();
+            return;
+        }
+        Thread thread = new Thread(this::run, "ocr-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        try {
+            step("motores", tesseractPool::prewarm);
+            if (enabled) {
+                step("dicionario", () -> {
+                    // o DAWG é mapeado em memoria: a busca traz as paginas do arquivo para a RAM
+                    dictionary.contains("contrato");
+                    dictionaryIndex.suggest("contratu", 5, 2, false);
+                });
+                for (int i = 0; i < iterations; i++) {
+                    step("pagina-" + (i + 1), this::syntheticPage);
+                }
+            }
+        } catch (Exception e) {
+            // sem Tesseract/OpenCV a aplicação fica pronta do mesmo jeito (igual a antes), só sem o aquecimento
+            log.warn("Aquecimento do OCR incompleto: {}", e.getMessage());
+        } finally {
+            done = true;
+            log.info("Aquecimento do OCR concluído em {} ms: {}", System.currentTimeMillis() - start, timings());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private void step(String name, Step step) throws Exception {
+        long start = System.currentTimeMillis();
+        try {
+            step.run();
+        } finally {
+            synchronized (timings) {
+                timings.put(name, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    // pagina de texto processada no ocrExecutor como uma pagina da fila (processPage): sem hash não passa pelo cache
+    private void syntheticPage() throws Exception {
+        PageText page;
+        try (PDDocument document = new PDDocument()) {
+            PDPage blank = new PDPage();
+            document.addPage(blank);
+            try (PDPageContentStream content = new PDPageContentStream(document, blank)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 14);
+                content.setLeading(20);
+                content.newLineAtOffset(60, 700);
+                for (String line : LINES) {
+                    content.showText(line);
+                    content.newLine();
+                }
+                content.endText();
+            }
+            // forçando o OCR: a pagina sintetica tem camada de texto
+            page = ocrExecutor.submit(() -> ocrService.processPage(document, 1, true, null, OutputMode.PAGES)).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+
+        if (page.text().startsWith("Erro ao fazer OCR")) throw new IOException(page.text());
+        // sem o cleanText: o resultado iria para o cache e a proxima subida pularia a correção
+        ocrService.textCorrector(LineClassifier.filter(page.text(), (number, verdict) -> {}));
+    }
+
+    private String timings() {
+        synchronized (timings) {
+            StringBuilder sb = new StringBuilder();
+            timings.forEach((name, ms) -> sb.append(sb.isEmpty() ? "" : ", ").append(name).append('=').append(ms).append(" ms"));
+            return sb.toString();
+        }
+    }
+
+    // fora do ar para o grupo readiness enquanto aquece; detalhes com o tempo das etapas já feitas
+    @Override
+    public Health health() {
+        Map<String, Long> details;
+        synchronized (timings) {
+            details = new LinkedHashMap<>(timings);
+        }
+        return (done ? Health.up() : Health.outOfService()).withDetail("timingsMs", details).build();
+    }
+}
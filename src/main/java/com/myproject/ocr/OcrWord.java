@@ -0,0 +1,6 @@
+package com.myproject.ocr;
+
+// palavra reconhecida pelo Tesseract: confiança de 0 a 100 e posição em pixels na pagina renderizada
+// (na resolução do PageText.dpi, origem no canto superior esquerdo)
+public record OcrWord(String text, float confidence, int x, int y, int width, int height) {
+}
@@ -0,0 +1,11 @@
+package com.myproject.ocr;
+
+// formato do resultado do /ocr
+public enum OutputMode {
+    // um pdf de texto por pagina (padrão)
+    PAGES,
+    // um unico pdf de texto com todas as paginas, montado conforme elas ficam prontas
+    DOCUMENT,
+    // um unico pdf com as paginas originais e o texto do OCR invisivel por cima (pesquisavel e selecionavel)
+    SEARCHABLE
+}
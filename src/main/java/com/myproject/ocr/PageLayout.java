@@ -0,0 +1,172 @@
+package com.myproject.ocr;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.MatVector;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_core.Size;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC1;
+import static org.bytedeco.opencv.global.opencv_imgproc.*;
+
+// layout da pagina: blocos de texto encontrados com morfologia + contornos, na ordem de leitura
+// margens e areas em branco ficam de fora, só os blocos vão para o Tesseract
+@Component
+public class PageLayout {
+
+    // retangulo da pagina em pixels (origem no canto superior esquerdo)
+    public record Block(int x, int y, int width, int height) {
+
+        int right() {
+            return x + width;
+        }
+
+        int bottom() {
+            return y + height;
+        }
+
+        boolean overlaps(Block other) {
+            return x < other.right() && other.x < right() && y < other.bottom() && other.y < bottom();
+        }
+
+        Block union(Block other) {
+            int left = Math.min(x, other.x);
+            int top = Math.min(y, other.y);
+            return new Block(left, top, Math.max(right(), other.right()) - left, Math.max(bottom(), other.bottom()) - top);
+        }
+    }
+
+    // acima disso provavelmente é ruido ou uma pagina muito fragmentada: um bloco só com tudo
+    @Value("${ocr.layout.max-blocks:32}")
+    private int maxBlocks;
+
+    int maxBlocks() {
+        return maxBlocks;
+    }
+
+    // blocos de texto de :pixels (renderizados em :dpi) na ordem de leitura; vazio se a pagina estiver em branco
+    public List<Block> blocks(PagePreprocessor.Pixels pixels, int dpi) {
+        // o kernel junta letras em linhas e linhas em paragrafos, sem atravessar o espaço entre colunas
+        int kernelWidth = Math.max(3, dpi / 12);
+        int kernelHeight = Math.max(3, dpi / 25);
+        int speck = Math.max(2, dpi / 50);
+
+        List<Block> found = new ArrayList<>();
+        try (Mat page = new Mat(pixels.height(), pixels.width(), CV_8UC1, new BytePointer(pixels.data()), pixels.bytesPerLine());
+             Mat binary = new Mat();
+             Size size = new Size(kernelWidth, kernelHeight);
+             Mat kernel = getStructuringElement(MORPH_RECT, size);
+             MatVector contours = new MatVector()) {
+
+            // tira o sal e pimenta da digitalização antes de binarizar (texto vira branco)
+            medianBlur(page, binary, 3);
+            threshold(binary, binary, 0, 255, THRESH_BINARY_INV | THRESH_OTSU);
+            dilate(binary, binary, kernel);
+            findContours(binary, contours, RETR_EXTERNAL, CHAIN_APPROX_SIMPLE);
+
+            for (long i = 0; i < contours.size(); i++) {
+                try (Mat contour = contours.get(i); Rect rect = boundingRect(contour)) {
+                    // manchas isoladas: pouco mais que o proprio kernel
+                    if (rect.width() <= kernelWidth + speck && rect.height() <= kernelHeight + speck) continue;
+                    found.add(new Block(rect.x(), rect.y(), rect.width(), rect.height()));
+                }
+            }
+        }
+
+        List<Block> merged = merge(found);
+        if (merged.size() > maxBlocks) merged = List.of(bounds(merged));
+        return readingOrder(merged);
+    }
+
+    // junta os blocos que se sobrepõem (um contorno em L pode cobrir parte de outro)
+    static List<Block> merge(List<Block> blocks) {
+        List<Block> merged = new ArrayList<>();
+        for (Block block : blocks) {
+            Block current = block;
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < merged.size(); i++) {
+                    if (merged.get(i).overlaps(current)) {
+                        current = current.union(merged.remove(i));
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            merged.add(current);
+        }
+        return merged;
+    }
+
+    // retangulo que cobre todos os blocos (só corta as margens)
+    private static Block bounds(List<Block> blocks) {
+        Block all = blocks.get(0);
+        for (Block block : blocks) all = all.union(block);
+        return all;
+    }
+
+    // ordem de leitura por cortes recursivos (XY-cut): divide no maior vão vazio, em faixas (de cima para baixo)
+    // ou colunas (da esquerda para a direita), até sobrar um bloco por grupo
+    static List<Block> readingOrder(List<Block> blocks) {
+        List<Block> ordered = new ArrayList<>(blocks.size());
+        xyCut(new ArrayList<>(blocks), ordered);
+        return ordered;
+    }
+
+    private static void xyCut(List<Block> blocks, List<Block> ordered) {
+        if (blocks.size() <= 1) {
+            ordered.addAll(blocks);
+            return;
+        }
+
+        Cut rows = cut(blocks, Block::y, Block::bottom);
+        Cut columns = cut(blocks, Block::x, Block::right);
+        // o maior vão decide: o espaço entre colunas costuma ser maior que o entre paragrafos
+        boolean byColumns = columns.groups().size() > 1 && (rows.groups().size() <= 1 || columns.gap() > rows.gap());
+        Cut best = byColumns ? columns : rows;
+        if (best.groups().size() <= 1) {
+            // blocos entrelaçados, sem vão em nenhum eixo
+            blocks.sort(Comparator.comparingInt(Block::y).thenComparingInt(Block::x));
+            ordered.addAll(blocks);
+            return;
+        }
+
+        for (List<Block> group : best.groups()) {
+            xyCut(group, ordered);
+        }
+    }
+
+    // grupos separados por vãos que nenhum bloco atravessa, e o tamanho do maior vão
+    private record Cut(List<List<Block>> groups, int gap) {
+    }
+
+    private static Cut cut(List<Block> blocks, ToIntFunction<Block> start, ToIntFunction<Block> end) {
+        List<Block> sorted = new ArrayList<>(blocks);
+        sorted.sort(Comparator.comparingInt(start));
+
+        List<List<Block>> groups = new ArrayList<>();
+        List<Block> current = new ArrayList<>();
+        int reach = Integer.MIN_VALUE;
+        int gap = 0;
+        for (Block block : sorted) {
+            int blockStart = start.applyAsInt(block);
+            if (!current.isEmpty() && blockStart >= reach) {
+                gap = Math.max(gap, blockStart - reach);
+                groups.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(block);
+            reach = Math.max(reach, end.applyAsInt(block));
+        }
+        groups.add(current);
+        return new Cut(groups, gap);
+    }
+}
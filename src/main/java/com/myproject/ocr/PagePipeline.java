@@ -0,0 +1,112 @@
+package com.myproject.ocr;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// pipeline de paginas em estagios: render -> (preprocess + recognize) -> emit
+// - render e emit rodam na thread que chamou (o PDDocument não é thread-safe, e a saida sai em ordem)
+// - preprocess/recognize rodam no executor, no maximo :parallelism ao mesmo tempo
+// - no maximo :maxInFlight paginas ficam entre o render e o emit; quando enche, o render espera (backpressure)
+// assim o pico de memoria depende de :maxInFlight e não do tamanho do documento
+public final class PagePipeline<T, U, R> {
+
+    // estagio de render: le a pagina :index do documento
+    @FunctionalInterface
+    public interface Render<T> {
+        T render(int index) throws IOException;
+    }
+
+    // estagio de processamento (preprocess + recognize), roda em paralelo
+    @FunctionalInterface
+    public interface Recognize<T, U> {
+        U recognize(T rendered) throws Exception;
+    }
+
+    // estagio de saida, chamado uma vez por pagina na ordem dos indices
+    @FunctionalInterface
+    public interface Emit<U, R> {
+        R emit(int index, U recognized) throws IOException;
+    }
+
+    private record Done<U>(int index, U value) {
+    }
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxInFlight;
+
+    public PagePipeline(ExecutorService executor, int parallelism, int maxInFlight) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public List<R> run(int count, Render<T> render, Recognize<T, U> recognize, Emit<U, R> emit) throws IOException {
+        List<R> results = new ArrayList<>(count);
+        CompletionService<Done<U>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Done<U>>> futures = new ArrayList<>();
+
+        Deque<Done<T>> rendered = new ArrayDeque<>(); // fila render -> recognize
+        Map<Integer, U> ready = new HashMap<>();      // fila recognize -> emit (reordena)
+        int nextRender = 0;
+        int nextEmit = 0;
+        int inFlight = 0;
+        int running = 0;
+
+        try {
+            while (nextEmit < count) {
+                // cancelado (ex.: job assincrono): para de renderizar e emitir
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+
+                // emit: sai tudo que já está pronto, na ordem
+                if (ready.containsKey(nextEmit)) {
+                    results.add(emit.emit(nextEmit, ready.remove(nextEmit)));
+                    nextEmit++;
+                    inFlight--;
+                    continue;
+                }
+
+                // recognize: alimenta as threads livres
+                while (running < parallelism && !rendered.isEmpty()) {
+                    Done<T> page = rendered.poll();
+                    futures.add(completion.submit(() -> new Done<>(page.index(), recognize.recognize(page.value()))));
+                    running++;
+                }
+
+                // render: adianta a proxima pagina enquanto houver espaço
+                if (nextRender < count && inFlight < maxInFlight) {
+                    rendered.add(new Done<>(nextRender, render.render(nextRender)));
+                    nextRender++;
+                    inFlight++;
+                    continue;
+                }
+
+                // tudo cheio: espera alguma pagina terminar
+                Done<U> done = completion.take().get();
+                running--;
+                ready.put(done.index(), done.value());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Processamento das páginas interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException("Falha ao processar página", e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        return results;
+    }
+}
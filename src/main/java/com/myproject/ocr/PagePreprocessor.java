@@ -0,0 +1,156 @@
+package com.myproject.ocr;
+
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.indexer.FloatRawIndexer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.bytedeco.opencv.global.opencv_core.*;
+import static org.bytedeco.opencv.global.opencv_imgproc.*;
+
+// pré-processamento das paginas (nitidez) com o minimo de copias e memoria nativa liberada de forma deterministica
+// - a pagina já chega em tons de cinza (render com ImageType.GRAY)
+// - uma unica copia heap -> nativo; o resultado vai direto do Mat para o Tesseract, sem voltar para BufferedImage
+// - kernel criado uma vez e Mats de trabalho reaproveitados por thread
+@Component
+public class PagePreprocessor {
+
+    // pixels em tons de cinza (1 byte por pixel) prontos para o Tesseract
+    public record Pixels(ByteBuffer data, int width, int height, int bytesPerLine) {
+
+        // recorte sem copia: mesmo buffer a partir de (:x, :y), com a mesma largura de linha
+        public Pixels crop(int x, int y, int width, int height) {
+            ByteBuffer view = data.duplicate().position(y * bytesPerLine + x).slice();
+            view.limit((height - 1) * bytesPerLine + width);
+            return new Pixels(view, width, height, bytesPerLine);
+        }
+    }
+
+    // trecho executado enquanto os pixels estão validos (eles são reaproveitados depois)
+    @FunctionalInterface
+    public interface PixelsTask<T> {
+        T run(Pixels pixels) throws TesseractException;
+    }
+
+    // Mats de trabalho de uma thread, reaproveitados entre as paginas
+    private static final class Scratch {
+        final Mat source = new Mat();
+        final Mat result = new Mat();
+
+        void close() {
+            source.close();
+            result.close();
+        }
+    }
+
+    // kernel de nitidez, criado só quando o OpenCV é usado pela primeira vez
+    private static final class Kernel {
+        static final Mat SHARPEN = create();
+
+        private static Mat create() {
+            Mat kernel = new Mat(3, 3, CV_32F);
+            FloatRawIndexer indexer = kernel.createIndexer();
+            indexer.put(0, 0,  0f);  indexer.put(0, 1, -1f);  indexer.put(0, 2,  0f);
+            indexer.put(1, 0, -1f);  indexer.put(1, 1,  9f);  indexer.put(1, 2, -1f);
+            indexer.put(2, 0,  0f);  indexer.put(2, 1, -1f);  indexer.put(2, 2,  0f);
+            indexer.release();
+            return kernel;
+        }
+    }
+
+    // um Scratch por thread do ocrExecutor (não chamar a partir de virtual threads, cada uma criaria o seu)
+    private final Set<Scratch> allScratch = ConcurrentHashMap.newKeySet();
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> {
+        Scratch created = new Scratch();
+        allScratch.add(created);
+        return created;
+    });
+
+    // aplica a nitidez e entrega o resultado (memoria nativa, sem copia) para :task
+    public <T> T sharpen(BufferedImage page, PixelsTask<T> task) throws TesseractException {
+        Scratch work = scratch.get();
+        filter(page, work);
+
+        return task.run(pixels(work.result));
+    }
+
+    // só copia a pagina em tons de cinza para a memoria nativa, sem nitidez
+    // Mat proprio, liberado no fim: é chamado fora do ocrExecutor (threads do Tomcat), onde um Scratch por thread ficaria preso
+    public <T> T gray(BufferedImage page, PixelsTask<T> task) throws TesseractException {
+        try (Mat source = bufferedImageToMat(page)) {
+            return task.run(pixels(source));
+        }
+    }
+
+    private static Pixels pixels(Mat mat) {
+        long bytesPerLine = mat.step1() * mat.elemSize1();
+        BytePointer data = mat.data().limit(bytesPerLine * mat.rows());
+        return new Pixels(data.asByteBuffer(), mat.cols(), mat.rows(), (int) bytesPerLine);
+    }
+
+    // mesma nitidez, devolvendo uma imagem em tons de cinza (uma copia nativo -> heap)
+    public BufferedImage sharpen(BufferedImage page) {
+        Scratch work = scratch.get();
+        filter(page, work);
+        return matToBufferedImage(work.result);
+    }
+
+    private void filter(BufferedImage page, Scratch work) {
+        bufferedImageToMat(page, work.source);
+        filter2D(work.source, work.result, work.source.depth(), Kernel.SHARPEN);
+    }
+
+    // copia a imagem para :target em tons de cinza (CV_8UC1), reaproveitando a memoria do Mat
+    static void bufferedImageToMat(BufferedImage image, Mat target) {
+        BufferedImage gray = image;
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY
+                || image.getRaster().getDataBuffer().getSize() != image.getWidth() * image.getHeight()) {
+            // só converte o que não veio em cinza do render
+            gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+            gray.getGraphics().drawImage(image, 0, 0, null);
+        }
+
+        byte[] pixels = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        target.create(gray.getHeight(), gray.getWidth(), CV_8UC1);
+        target.data().put(pixels);
+    }
+
+    // converte a imagem em um Mat novo (quem chama deve fechar o Mat)
+    static Mat bufferedImageToMat(BufferedImage image) {
+        Mat mat = new Mat();
+        bufferedImageToMat(image, mat);
+        return mat;
+    }
+
+    // copia o Mat direto para o buffer da imagem, sem array intermediario
+    static BufferedImage matToBufferedImage(Mat mat) {
+        int type = (mat.channels() == 1) ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_3BYTE_BGR;
+        BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), type);
+        byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        if (mat.isContinuous()) {
+            mat.data().get(target);
+        } else {
+            try (Mat continuous = mat.clone()) {
+                continuous.data().get(target);
+            }
+        }
+        return image;
+    }
+
+    // libera a memoria nativa de todas as threads
+    @PreDestroy
+    void release() {
+        allScratch.forEach(Scratch::close);
+        allScratch.clear();
+    }
+}
@@ -0,0 +1,6 @@
+package com.myproject.ocr;
+
+// resultado de uma pagina do /ocr: link do pdf gerado, o caminho usado para extrair o texto
+// e a resolução final do OCR (null na camada de texto)
+public record PageResult(int page, String link, ExtractionMethod method, Integer dpi) {
+}
@@ -0,0 +1,12 @@
+package com.myproject.ocr;
+
+import java.util.List;
+
+// texto extraido de uma pagina e o caminho usado
+// :words e :dpi só vêm preenchidos no OCR (a camada de texto não tem confiança, posição nem resolução)
+public record PageText(int page, String text, ExtractionMethod method, List<OcrWord> words, Integer dpi) {
+
+    public PageText(int page, String text, ExtractionMethod method) {
+        this(page, text, method, List.of(), null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.state.RenderingMode;
+import org.apache.pdfbox.util.Matrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+// pdf de saida montado pagina a pagina; com MemoryUsageSetting.setupTempFileOnly() o conteudo das paginas
+// vai para um arquivo temporario do PDFBox em vez do heap
+// o arquivo final só aparece em :target no save(), já completo (escreve em .part e move)
+public class PdfOutput implements Closeable {
+
+    private static final PDType1Font FONT = PDType1Font.HELVETICA;
+    private static final int LINES_PER_PAGE = 45;
+
+    private final PDDocument document;
+    private final Path target;
+
+    public PdfOutput(Path target, MemoryUsageSetting memory) {
+        this.target = target;
+        this.document = new PDDocument(memory);
+    }
+
+    public Path target() {
+        return target;
+    }
+
+    // texto corrido em Helvetica 12, 45 linhas por pagina
+    public void addText(String text) throws IOException {
+        PDPageContentStream content = null;
+        int cont = LINES_PER_PAGE;
+        try {
+            // preenche linha por linha
+            for (String linha : text.split("\\r?\\n")) {
+                if (cont >= LINES_PER_PAGE) {
+                    if (content != null) {
+                        content.endText();
+                        content.close();
+                    }
+                    content = newTextPage();
+                    cont = 0;
+                }
+                content.showText(printable(linha));
+                content.newLine();
+                cont++;
+            }
+            content.endText();
+        } finally {
+            if (content != null) content.close();
+        }
+    }
+
+    private PDPageContentStream newTextPage() throws IOException {
+        PDPage page = new PDPage();
+        document.addPage(page);
+
+        // formatações
+        PDPageContentStream content = new PDPageContentStream(document, page);
+        content.beginText();
+        content.setFont(FONT, 12);
+        content.setLeading(14.5f);
+        content.newLineAtOffset(50, 700);
+        return content;
+    }
+
+    // copia :source (de outro documento, que precisa continuar aberto até o save) e escreve por cima as :words
+    // do OCR em texto invisivel, cada uma esticada sobre a sua caixa: a pagina fica igual, mas dá para buscar e selecionar
+    // :words em pixels da imagem renderizada em :dpi; a rotação da pagina (/Rotate) não é considerada
+    public void addSearchable(PDPage source, List<OcrWord> words, Integer dpi) throws IOException {
+        PDPage page = document.importPage(source);
+        if (words.isEmpty() || dpi == null) return;
+
+        // o PDFRenderer desenha a cropBox, origem no canto superior esquerdo; no pdf a origem é embaixo
+        PDRectangle box = page.getCropBox();
+        float scale = 72f / dpi;
+        try (PDPageContentStream content = new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+            content.beginText();
+            content.setRenderingMode(RenderingMode.NEITHER);
+            for (OcrWord word : words) {
+                String text = printable(word.text()).strip();
+                if (text.isEmpty() || word.width() <= 0 || word.height() <= 0) continue;
+
+                float fontSize = word.height() * scale;
+                float textWidth = FONT.getStringWidth(text) / 1000 * fontSize;
+                if (textWidth <= 0) continue;
+
+                content.setFont(FONT, fontSize);
+                content.setTextMatrix(new Matrix(word.width() * scale / textWidth, 0, 0, 1,
+                        box.getLowerLeftX() + word.x() * scale,
+                        box.getUpperRightY() - (word.y() + word.height()) * scale));
+                content.showText(text);
+            }
+            content.endText();
+        }
+    }
+
+    // grava o documento e publica em :target de uma vez
+    public void save() throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            document.save(partial.toFile());
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+
+    // troca por '?' os caracteres que a Helvetica padrão não consegue escrever (evita erro no showText)
+    static String printable(String line) {
+        StringBuilder sb = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            String c = new String(Character.toChars(codePoint));
+            try {
+                FONT.encode(c);
+                sb.append(c);
+            } catch (IllegalArgumentException | IOException e) {
+                sb.append(Character.isWhitespace(codePoint) ? " " : "?");
+            }
+            i += Character.charCount(codePoint);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package com.myproject.ocr;
+
+// fotografia do uso de um pool de motores OCR
+public record PoolStats(String language, int maxSize, int created, int borrowed, int idle,
+                        long borrowCount, double averageWaitMillis, double maxWaitMillis) {
+}
@@ -0,0 +1,94 @@
+package com.myproject.ocr;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// texto reconhecido de uma pagina, por documento (sha-256 do PDF); tabela em schema-${platform}.sql
+@Entity
+@Table(name = "ocr_page", uniqueConstraints = @UniqueConstraint(columnNames = {"document_hash", "page"}))
+public class StoredPage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "document_hash", nullable = false, length = 64)
+    private String documentHash;
+
+    @Column(nullable = false)
+    private int page;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ExtractionMethod method;
+
+    private Integer dpi;
+
+    // texto longo lido/gravado como String (CLOB no H2, TEXT no PostgreSQL, LONGTEXT no MySQL), sem a API de LOB
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String text;
+
+    @Column(name = "indexed_at", nullable = false)
+    private long indexedAt;
+
+    protected StoredPage() {
+    }
+
+    public StoredPage(String documentHash, int page) {
+        this.documentHash = documentHash;
+        this.page = page;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDocumentHash() {
+        return documentHash;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public ExtractionMethod getMethod() {
+        return method;
+    }
+
+    public void setMethod(ExtractionMethod method) {
+        this.method = method;
+    }
+
+    public Integer getDpi() {
+        return dpi;
+    }
+
+    public void setDpi(Integer dpi) {
+        this.dpi = dpi;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public long getIndexedAt() {
+        return indexedAt;
+    }
+
+    public void setIndexedAt(long indexedAt) {
+        this.indexedAt = indexedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.myproject.ocr;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface StoredPageRepository extends JpaRepository<StoredPage, Long> {
+
+    Optional<StoredPage> findByDocumentHashAndPage(String documentHash, int page);
+}
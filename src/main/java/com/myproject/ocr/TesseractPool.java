@@ -0,0 +1,322 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// pool de motores OCR já inicializados, separados por idioma
+// motores ociosos por mais de ocr.pool.idle-timeout-ms são encerrados (cada um segura o traineddata na memoria nativa),
+// sem descer de ocr.pool.min-size por idioma
+@Component
+public class TesseractPool implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(TesseractPool.class);
+
+    @Value("${ocr.tesseract.datapath:C:/Program Files/Tesseract-OCR/tessdata}")
+    private String datapath;
+
+    @Value("${ocr.tesseract.language:por}")
+    private String defaultLanguage;
+
+    @Value("${ocr.tesseract.engine-mode:1}")
+    private int engineMode;
+
+    // motores que ficam vivos mesmo ociosos, por idioma
+    @Value("${ocr.pool.min-size:1}")
+    private int minSize;
+
+    @Value("${ocr.pool.max-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int maxSize;
+
+    @Value("${ocr.pool.borrow-timeout-ms:30000}")
+    private long borrowTimeoutMs;
+
+    @Value("${ocr.pool.languages:por}")
+    private String[] languages;
+
+    // 0 = nunca encerra motores ociosos
+    @Value("${ocr.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    private final Map<String, LanguagePool> pools = new ConcurrentHashMap<>();
+
+    // registro de metricas, os idiomas criados depois também são publicados
+    private volatile MeterRegistry registry;
+
+    // trecho executado com um motor emprestado
+    @FunctionalInterface
+    public interface EngineTask<T> {
+        T run(OcrEngine engine) throws TesseractException;
+    }
+
+    // cria os motores minimos de cada idioma; chamado pelo OcrWarmup na subida da aplicação
+    public void prewarm() {
+        for (String language : languages) {
+            LanguagePool pool = pool(language.trim());
+            List<OcrEngine> engines = new ArrayList<>();
+            try {
+                for (int i = 0; i < Math.min(minSize, maxSize); i++) {
+                    engines.add(pool.borrow());
+                }
+                log.info("Pool OCR '{}' pronto com {} motores", pool.language, engines.size());
+            } catch (TesseractException | LinkageError e) {
+                // sem tesseract instalado a aplicação sobe mesmo assim, os motores são criados sob demanda
+                log.warn("Não foi possível pré-carregar o Tesseract ({}): {}", pool.language, e.getMessage());
+            } finally {
+                engines.forEach(pool::release);
+            }
+        }
+    }
+
+    public <T> T execute(EngineTask<T> task) throws TesseractException {
+        return execute(defaultLanguage, task);
+    }
+
+    // empresta um motor do idioma, executa e devolve ao pool
+    public <T> T execute(String language, EngineTask<T> task) throws TesseractException {
+        LanguagePool pool = pool(language);
+        OcrEngine engine = pool.borrow();
+        try {
+            return task.run(engine);
+        } finally {
+            pool.release(engine);
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+
+    public int getEngineMode() {
+        return engineMode;
+    }
+
+    // metricas de uso por idioma
+    public List<PoolStats> stats() {
+        List<PoolStats> stats = new ArrayList<>();
+        for (LanguagePool pool : pools.values()) {
+            stats.add(pool.stats());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pools.values().forEach(LanguagePool::close);
+        log.info("Pool OCR encerrado");
+    }
+
+    // encerra os motores ociosos há mais de ocr.pool.idle-timeout-ms, mantendo ocr.pool.min-size por idioma
+    @Scheduled(fixedDelayString = "${ocr.pool.evict-interval-ms:60000}")
+    public void evictIdle() {
+        if (idleTimeoutMs <= 0) return;
+        long limit = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        for (LanguagePool pool : pools.values()) {
+            int evicted = pool.evict(limit);
+            if (evicted > 0) log.debug("Pool OCR '{}': {} motores ociosos encerrados", pool.language, evicted);
+        }
+    }
+
+    // cria um motor inicializado (sobrescrito nos testes, sem Tesseract)
+    OcrEngine newEngine(String language) throws TesseractException {
+        return new OcrEngine(datapath, language, engineMode);
+    }
+
+    private LanguagePool pool(String language) {
+        return pools.computeIfAbsent(language, l -> {
+            LanguagePool pool = new LanguagePool(l);
+            if (registry != null) pool.bindTo(registry);
+            return pool;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        pools.values().forEach(pool -> pool.bindTo(registry));
+    }
+
+    // motor ocioso e desde quando (System.nanoTime)
+    private record Idle(OcrEngine engine, long since) {
+    }
+
+    private final class LanguagePool {
+        final String language;
+        // mais recente na frente: o empréstimo pega do inicio, a remoção por ociosidade olha o fim
+        final BlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger borrowed = new AtomicInteger();
+        final LongAdder borrowCount = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+        volatile boolean closed;
+        // quem espera acorda quando um motor volta ou uma vaga abre (criação que falhou, motor encerrado)
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition changed = lock.newCondition();
+        volatile long version;
+
+        LanguagePool(String language) {
+            this.language = language;
+        }
+
+        OcrEngine borrow() throws TesseractException {
+            if (closed) throw new TesseractException("Pool OCR encerrado");
+
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+            OcrEngine engine;
+            while (true) {
+                long seen = version;
+                Idle free = idle.pollFirst();
+                engine = free != null ? free.engine() : tryCreate();
+                if (engine != null) break;
+
+                // pool cheio: espera algum motor ser devolvido ou uma vaga abrir
+                if (!awaitChange(seen, deadline)) {
+                    throw new TesseractException("Tempo esgotado aguardando motor OCR (" + language + ")");
+                }
+                if (closed) throw new TesseractException("Pool OCR encerrado");
+            }
+
+            long waited = System.nanoTime() - start;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            borrowCount.increment();
+            borrowed.incrementAndGet();
+            return engine;
+        }
+
+        void release(OcrEngine engine) {
+            borrowed.decrementAndGet();
+            if (closed) {
+                destroy(engine);
+                return;
+            }
+            // devolve no topo, o proximo a pegar recebe o motor mais "quente"
+            Idle entry = new Idle(engine, System.nanoTime());
+            idle.offerFirst(entry);
+            // close() pode ter esvaziado a fila entre o teste acima e o offer: quem tirar o motor da fila o encerra
+            if (closed && idle.remove(entry)) destroy(engine);
+            signal();
+        }
+
+        // encerra os ociosos desde antes de :limit (pelo fim da fila, os mais antigos), sem descer de minSize
+        int evict(long limit) {
+            int evicted = 0;
+            while (created.get() > minSize) {
+                Idle oldest = idle.pollLast();
+                if (oldest == null) break;
+                if (oldest.since() - limit > 0) {
+                    // ainda em uso recente: volta para o mesmo lugar
+                    idle.offerLast(oldest);
+                    break;
+                }
+                destroy(oldest.engine());
+                evicted++;
+            }
+            return evicted;
+        }
+
+        private void destroy(OcrEngine engine) {
+            engine.close();
+            created.decrementAndGet();
+            signal();
+        }
+
+        private OcrEngine tryCreate() throws TesseractException {
+            while (true) {
+                int current = created.get();
+                if (current >= maxSize) return null;
+                if (created.compareAndSet(current, current + 1)) break;
+            }
+
+            try {
+                return newEngine(language);
+            } catch (Throwable e) {
+                created.decrementAndGet();
+                signal();
+                throw e;
+            }
+        }
+
+        // false se :deadline passou sem nada mudar desde :seen
+        private boolean awaitChange(long seen, long deadline) throws TesseractException {
+            lock.lock();
+            try {
+                while (version == seen) {
+                    long nanos = deadline - System.nanoTime();
+                    if (nanos <= 0) return false;
+                    changed.awaitNanos(nanos);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TesseractException("Interrompido aguardando motor OCR (" + language + ")");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void signal() {
+            lock.lock();
+            try {
+                version++;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            closed = true;
+            Idle entry;
+            while ((entry = idle.pollFirst()) != null) {
+                destroy(entry.engine());
+            }
+            signal();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            Gauge.builder("ocr.pool.engines", borrowed, AtomicInteger::get)
+                    .tags("language", language, "state", "borrowed").register(registry);
+            Gauge.builder("ocr.pool.engines", idle, BlockingDeque::size)
+                    .tags("language", language, "state", "idle").register(registry);
+            Gauge.builder("ocr.pool.engines.max", () -> maxSize).tag("language", language).register(registry);
+            FunctionCounter.builder("ocr.pool.borrows", borrowCount, LongAdder::sum).tag("language", language).register(registry);
+            FunctionCounter.builder("ocr.pool.wait", waitNanos, w -> w.sum() / 1e9)
+                    .tag("language", language).baseUnit("seconds").register(registry);
+        }
+
+        PoolStats stats() {
+            long count = borrowCount.sum();
+            double averageWait = count == 0 ? 0 : waitNanos.sum() / (double) count / 1_000_000;
+            return new PoolStats(language, maxSize, created.get(), borrowed.get(), idle.size(),
+                    count, averageWait, maxWaitNanos.get() / 1_000_000.0);
+        }
+    }
+}
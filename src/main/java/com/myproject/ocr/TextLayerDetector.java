@@ -0,0 +1,151 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+
+// verifica se a pagina já tem uma camada de texto aproveitavel (PDF nascido digital)
+// nesse caso o texto é extraido direto pelo PDFBox, sem renderizar nem passar pelo Tesseract
+@Component
+public class TextLayerDetector {
+
+    // minimo de caracteres (sem contar espaços) para considerar a camada de texto
+    @Value("${ocr.text-layer.min-chars:20}")
+    private int minChars;
+
+    // acima dessa fração da pagina coberta por imagens, a pagina é tratada como escaneada
+    @Value("${ocr.text-layer.max-image-coverage:0.9}")
+    private double maxImageCoverage;
+
+    // resultado da analise de uma pagina
+    public record TextLayer(String text, int chars, boolean hasFonts, double imageCoverage, boolean usable) {
+    }
+
+    // analisa a pagina :pageNum (começando em 1); não é thread-safe, assim como o PDDocument
+    public TextLayer analyze(PDDocument document, int pageNum) throws IOException {
+        PDPage page = document.getPage(pageNum - 1);
+
+        GlyphCountingStripper stripper = new GlyphCountingStripper();
+        stripper.setStartPage(pageNum);
+        stripper.setEndPage(pageNum);
+        String text = stripper.getText(document);
+
+        int chars = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) chars++;
+        }
+
+        // fontes sem mapeamento para unicode geram lixo na extração, melhor fazer OCR
+        boolean hasFonts = stripper.glyphs > 0 && stripper.unmapped * 10 < stripper.glyphs;
+        if (!hasFonts || chars < minChars) return new TextLayer(text, chars, hasFonts, 0, false);
+
+        double coverage = imageCoverage(page);
+        return new TextLayer(text, chars, true, coverage, coverage <= maxImageCoverage);
+    }
+
+    // conta os glifos desenhados com fonte e os que não têm unicode
+    private static final class GlyphCountingStripper extends PDFTextStripper {
+        int glyphs;
+        int unmapped;
+
+        GlyphCountingStripper() throws IOException {
+        }
+
+        @Override
+        protected void processTextPosition(TextPosition text) {
+            if (text.getFont() != null) {
+                glyphs++;
+                String unicode = text.getUnicode();
+                if (unicode == null || unicode.isBlank() || unicode.indexOf('\uFFFD') >= 0) unmapped++;
+            }
+            super.processTextPosition(text);
+        }
+    }
+
+    // fração da area da pagina ocupada por imagens (soma das areas desenhadas, limitada a 1)
+    private static double imageCoverage(PDPage page) throws IOException {
+        PDRectangle box = page.getCropBox();
+        double pageArea = box.getWidth() * box.getHeight();
+        if (pageArea <= 0) return 0;
+
+        ImageAreaCollector collector = new ImageAreaCollector(page);
+        collector.processPage(page);
+        return Math.min(1, collector.area / pageArea);
+    }
+
+    // percorre o conteudo da pagina somando a area de cada imagem desenhada
+    private static final class ImageAreaCollector extends PDFGraphicsStreamEngine {
+        double area;
+
+        ImageAreaCollector(PDPage page) {
+            super(page);
+        }
+
+        @Override
+        public void drawImage(PDImage pdImage) {
+            // a imagem ocupa o quadrado unitario transformado pela matriz atual
+            Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+            area += Math.abs(ctm.getScaleX() * ctm.getScaleY() - ctm.getShearX() * ctm.getShearY());
+        }
+
+        @Override
+        public void appendRectangle(Point2D p0, Point2D p1, Point2D p2, Point2D p3) {
+        }
+
+        @Override
+        public void clip(int windingRule) {
+        }
+
+        @Override
+        public void moveTo(float x, float y) {
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+        }
+
+        @Override
+        public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+        }
+
+        @Override
+        public Point2D getCurrentPoint() {
+            return new Point2D.Float();
+        }
+
+        @Override
+        public void closePath() {
+        }
+
+        @Override
+        public void endPath() {
+        }
+
+        @Override
+        public void strokePath() {
+        }
+
+        @Override
+        public void fillPath(int windingRule) {
+        }
+
+        @Override
+        public void fillAndStrokePath(int windingRule) {
+        }
+
+        @Override
+        public void shadingFill(COSName shadingName) {
+        }
+    }
+}
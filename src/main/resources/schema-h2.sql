@@ -0,0 +1,61 @@
+-- tabelas para H2 (spring.sql.init.platform=h2); as mesmas em schema-postgresql.sql e schema-mysql.sql
+
+-- fila de paginas do modo distribuido (ocr.queue.enabled), compartilhada pelos nos via spring.datasource
+
+-- PDF enviado, baixado pelos workers
+CREATE TABLE IF NOT EXISTS ocr_queue_document (
+    id          VARCHAR(36)  NOT NULL PRIMARY KEY,
+    hash        VARCHAR(64),
+    force_ocr   BOOLEAN      NOT NULL,
+    output_mode VARCHAR(16)  NOT NULL,
+    content     BLOB         NOT NULL,
+    created_at  BIGINT       NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_ocr_queue_document_created ON ocr_queue_document (created_at);
+
+-- uma tarefa por pagina pedida (:seq = ordem no pedido)
+-- PENDING -> RUNNING (owner + lease_until, renovado pelo heartbeat) -> DONE | FAILED
+CREATE TABLE IF NOT EXISTS ocr_queue_task (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_id VARCHAR(36)  NOT NULL,
+    seq         INT          NOT NULL,
+    page        INT          NOT NULL,
+    state       VARCHAR(16)  NOT NULL,
+    attempts    INT          NOT NULL,
+    owner       VARCHAR(128),
+    lease_until BIGINT,
+    method      VARCHAR(16),
+    dpi         INT,
+    text        CLOB,
+    words       CLOB,
+    error       VARCHAR(1000),
+    CONSTRAINT uk_ocr_queue_task UNIQUE (document_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS ix_ocr_queue_task_state ON ocr_queue_task (state, lease_until);
+
+-- texto reconhecido por documento (sha-256 do PDF) e pagina (StoredPage)
+CREATE TABLE IF NOT EXISTS ocr_page (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_hash VARCHAR(64)  NOT NULL,
+    page          INT          NOT NULL,
+    method        VARCHAR(16),
+    dpi           INT,
+    text          CLOB,
+    indexed_at    BIGINT       NOT NULL,
+    CONSTRAINT uk_ocr_page UNIQUE (document_hash, page)
+);
+
+-- indice invertido: termo sem acento -> pagina (IndexedTerm)
+CREATE SEQUENCE IF NOT EXISTS ocr_term_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ocr_term (
+    id        BIGINT       NOT NULL PRIMARY KEY,
+    term      VARCHAR(64)  NOT NULL,
+    page_id   BIGINT       NOT NULL REFERENCES ocr_page (id),
+    frequency INT          NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_ocr_term_term ON ocr_term (term);
+CREATE INDEX IF NOT EXISTS ix_ocr_term_page ON ocr_term (page_id);
@@ -0,0 +1,65 @@
+-- tabelas para MySQL 8 (spring.sql.init.platform=mysql); as mesmas de schema-h2.sql
+-- o MySQL não tem CREATE INDEX IF NOT EXISTS nem sequencias: indices dentro do CREATE TABLE e a sequencia do
+-- IndexedTerm numa tabela (como o Hibernate faz quando o banco não tem sequencias)
+
+-- fila de paginas do modo distribuido (ocr.queue.enabled), compartilhada pelos nos via spring.datasource
+
+-- PDF enviado, baixado pelos workers
+CREATE TABLE IF NOT EXISTS ocr_queue_document (
+    id          VARCHAR(36)  NOT NULL PRIMARY KEY,
+    hash        VARCHAR(64),
+    force_ocr   BOOLEAN      NOT NULL,
+    output_mode VARCHAR(16)  NOT NULL,
+    content     LONGBLOB     NOT NULL,
+    created_at  BIGINT       NOT NULL,
+    INDEX ix_ocr_queue_document_created (created_at)
+);
+
+-- uma tarefa por pagina pedida (:seq = ordem no pedido)
+-- PENDING -> RUNNING (owner + lease_until, renovado pelo heartbeat) -> DONE | FAILED
+CREATE TABLE IF NOT EXISTS ocr_queue_task (
+    id          BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    document_id VARCHAR(36)  NOT NULL,
+    seq         INT          NOT NULL,
+    page        INT          NOT NULL,
+    state       VARCHAR(16)  NOT NULL,
+    attempts    INT          NOT NULL,
+    owner       VARCHAR(128),
+    lease_until BIGINT,
+    method      VARCHAR(16),
+    dpi         INT,
+    text        LONGTEXT,
+    words       LONGTEXT,
+    error       VARCHAR(1000),
+    CONSTRAINT uk_ocr_queue_task UNIQUE (document_id, seq),
+    INDEX ix_ocr_queue_task_state (state, lease_until)
+);
+
+-- texto reconhecido por documento (sha-256 do PDF) e pagina (StoredPage)
+CREATE TABLE IF NOT EXISTS ocr_page (
+    id            BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    document_hash VARCHAR(64)  NOT NULL,
+    page          INT          NOT NULL,
+    method        VARCHAR(16),
+    dpi           INT,
+    text          LONGTEXT,
+    indexed_at    BIGINT       NOT NULL,
+    CONSTRAINT uk_ocr_page UNIQUE (document_hash, page)
+);
+
+-- indice invertido: termo sem acento -> pagina (IndexedTerm)
+CREATE TABLE IF NOT EXISTS ocr_term_seq (
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO ocr_term_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM ocr_term_seq);
+
+CREATE TABLE IF NOT EXISTS ocr_term (
+    id        BIGINT       NOT NULL PRIMARY KEY,
+    term      VARCHAR(64)  NOT NULL,
+    page_id   BIGINT       NOT NULL,
+    frequency INT          NOT NULL,
+    CONSTRAINT fk_ocr_term_page FOREIGN KEY (page_id) REFERENCES ocr_page (id),
+    INDEX ix_ocr_term_term (term),
+    INDEX ix_ocr_term_page (page_id)
+);
@@ -0,0 +1,102 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineClassifierTests {
+
+	@Test
+	void classifiesEachRule() {
+		assertThat(LineClassifier.classify("  ab!== ")).isEqualTo(LineClassifier.Verdict.SHORT);
+		assertThat(LineClassifier.classify("a de 12 x casa")).isEqualTo(LineClassifier.Verdict.SMALL_WORDS);
+		assertThat(LineClassifier.classify("a de 12 documento processado")).isEqualTo(LineClassifier.Verdict.KEPT);
+		assertThat(LineClassifier.classify("texto coooom erro")).isEqualTo(LineClassifier.Verdict.REPEATED);
+		assertThat(LineClassifier.classify("reticencias... 1000")).isEqualTo(LineClassifier.Verdict.KEPT);
+		// digitos são removidos antes de procurar repetições
+		assertThat(LineClassifier.classify("valor a1a2a total")).isEqualTo(LineClassifier.Verdict.REPEATED);
+	}
+
+	@Test
+	void filterKeepsCleanLinesAndReportsAll() throws IOException {
+		String text = "Primeira linha valida\r\n\n===>\"Segunda\" linha!\nxx\n\n";
+		List<LineClassifier.Verdict> verdicts = new ArrayList<>();
+
+		String kept = LineClassifier.filter(text, (number, verdict) -> verdicts.add(verdict));
+
+		assertThat(kept).isEqualTo("Primeira linha valida\nSegunda linha\n");
+		assertThat(verdicts).containsExactly(LineClassifier.Verdict.KEPT, LineClassifier.Verdict.SHORT,
+				LineClassifier.Verdict.KEPT, LineClassifier.Verdict.SHORT);
+		assertThat(LineClassifier.filter(new StringReader(text), (number, verdict) -> {})).isEqualTo(kept);
+	}
+
+	@Test
+	void matchesRegexRules() throws IOException {
+		int[] alphabet = "aab cde  .. 12 3\t\r\n=>'\"—!xyzéçã\u000B\f\u0085  \u0001Ж😀mmmm".codePoints().toArray();
+		Random random = new Random(42);
+
+		for (int n = 0; n < 20_000; n++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(60);
+			for (int i = 0; i < length; i++) sb.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+			String text = sb.toString();
+
+			List<LineClassifier.Verdict> expected = new ArrayList<>();
+			String expectedText = regexFilter(text, expected);
+
+			List<LineClassifier.Verdict> verdicts = new ArrayList<>();
+			assertThat(LineClassifier.filter(text, (number, verdict) -> verdicts.add(verdict))).as(text).isEqualTo(expectedText);
+			assertThat(verdicts).as(text).isEqualTo(expected);
+			assertThat(LineClassifier.filter(new StringReader(text), (number, verdict) -> {})).as(text).isEqualTo(expectedText);
+		}
+	}
+
+	// regras antigas do OcrService.filterLines, com regex
+	private static String regexFilter(String text, List<LineClassifier.Verdict> verdicts) {
+		StringBuilder sb = new StringBuilder();
+		for (String line : text.split("\\r?\\n")) {
+			String clean = line.trim().replaceAll("[=>'\"—!]", "");
+			if (clean.length() < 6) {
+				verdicts.add(LineClassifier.Verdict.SHORT);
+				continue;
+			}
+
+			Matcher m = Pattern.compile("(.)\\1{2,}").matcher(clean.replaceAll("[0-9]", ""));
+			boolean reject = false;
+			while (m.find()) {
+				if (!m.group(1).equals(" ") && !m.group(1).equals(".")) reject = true;
+			}
+
+			String[] words = clean.split("\\s+");
+			int maxConsecutive = 0;
+			int currentConsecutive = 0;
+			for (String w : words) {
+				if (w.length() <= 2 || w.matches("\\d+")) {
+					maxConsecutive = Math.max(maxConsecutive, ++currentConsecutive);
+				} else {
+					currentConsecutive = 0;
+				}
+			}
+			long countBigWords = Arrays.stream(words).filter(w -> w.length() >= 6).count();
+
+			if (countBigWords < 2 && maxConsecutive > 2) {
+				verdicts.add(LineClassifier.Verdict.SMALL_WORDS);
+			} else if (reject) {
+				verdicts.add(LineClassifier.Verdict.REPEATED);
+			} else {
+				verdicts.add(LineClassifier.Verdict.KEPT);
+				sb.append(clean).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,47 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedDawgTests {
+
+	@TempDir
+	Path dir;
+
+	private MappedDawg dawg;
+
+	@BeforeEach
+	void compile() throws IOException {
+		Path file = dir.resolve("teste.dawg");
+		DawgBuilder.compile(List.of("ação", "acao", "casa", "casas", "Casamento", "caça", "documento"), file);
+		dawg = MappedDawg.open(file);
+	}
+
+	@Test
+	void lookupIgnoresAccentsAndCase() {
+		assertThat(dawg.wordCount()).isEqualTo(7);
+		assertThat(dawg.contains("acao")).isTrue();
+		assertThat(dawg.contains("casamento")).isTrue();
+		assertThat(dawg.contains("cas")).isFalse();
+		assertThat(dawg.originals("acao")).containsExactlyInAnyOrder("ação", "acao");
+		assertThat(dawg.originals("caca")).containsExactly("caça");
+	}
+
+	@Test
+	void searchReturnsWordsWithinDistance() {
+		List<MappedDawg.Match> matches = dawg.search("documemto", 1);
+		assertThat(matches).extracting(MappedDawg.Match::word).containsExactly("documento");
+		assertThat(matches.get(0).distance()).isEqualTo(1);
+
+		assertThat(dawg.search("casa", 1)).extracting(MappedDawg.Match::word)
+				.containsExactlyInAnyOrder("casa", "casas", "caça");
+		assertThat(dawg.search("casa", 0)).extracting(MappedDawg.Match::foldedLength).containsExactly(4);
+	}
+}
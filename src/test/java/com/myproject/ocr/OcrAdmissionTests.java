@@ -0,0 +1,117 @@
+package com.myproject.ocr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OcrAdmissionTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	private OcrAdmission admission;
+
+	@BeforeEach
+	void createAdmission() {
+		admission = new OcrAdmission();
+		ReflectionTestUtils.setField(admission, "enabled", true);
+		ReflectionTestUtils.setField(admission, "maxPixels", 100L);
+		ReflectionTestUtils.setField(admission, "maxQueue", 1);
+		ReflectionTestUtils.setField(admission, "maxWaitMs", 10_000L);
+		ReflectionTestUtils.setField(admission, "retryAfterSeconds", 7L);
+		admission.bindTo(registry);
+	}
+
+	@AfterEach
+	void stopThreads() {
+		threads.shutdownNow();
+	}
+
+	@Test
+	void waitersAreAdmittedInArrivalOrder() throws Exception {
+		OcrAdmission.Permit holder = admission.await(50);
+		Future<OcrAdmission.Permit> large = threads.submit(() -> admission.await(80));
+		awaitQueue(1);
+		// 10 pixels caberiam agora, mas o pedido de 80 chegou antes
+		Future<OcrAdmission.Permit> small = threads.submit(() -> admission.await(10));
+		awaitQueue(2);
+		assertThatThrownBy(() -> small.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+		holder.close();
+
+		large.get(5, TimeUnit.SECONDS).close();
+		small.get(5, TimeUnit.SECONDS).close();
+		assertThat(gauge("ocr.admission.pixels.used")).isZero();
+	}
+
+	@Test
+	void fullQueueIsRejectedImmediately() throws Exception {
+		OcrAdmission.Permit holder = admission.admit(100);
+		Future<OcrAdmission.Permit> queued = threads.submit(() -> admission.admit(10));
+		awaitQueue(1);
+
+		assertThatThrownBy(() -> admission.admit(10))
+				.isInstanceOfSatisfying(OcrAdmission.SaturatedException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(7))
+				.hasMessageContaining("fila de espera cheia");
+		assertThat(rejections("queue_full")).isEqualTo(1);
+
+		holder.close();
+		queued.get(5, TimeUnit.SECONDS).close();
+	}
+
+	@Test
+	void backgroundWaitersDoNotFillTheQueue() throws Exception {
+		ReflectionTestUtils.setField(admission, "maxWaitMs", 50L);
+		OcrAdmission.Permit holder = admission.await(100);
+		Future<OcrAdmission.Permit> job1 = threads.submit(() -> admission.await(10));
+		Future<OcrAdmission.Permit> job2 = threads.submit(() -> admission.await(10));
+		awaitQueue(2);
+
+		// a fila HTTP continua vazia: o pedido entra na fila e só desiste pelo tempo
+		assertThatThrownBy(() -> admission.admit(10))
+				.isInstanceOf(OcrAdmission.SaturatedException.class)
+				.hasMessageContaining("tempo de espera esgotado");
+		assertThat(rejections("queue_full")).isZero();
+		assertThat(rejections("timeout")).isEqualTo(1);
+
+		holder.close();
+		job1.get(5, TimeUnit.SECONDS).close();
+		job2.get(5, TimeUnit.SECONDS).close();
+	}
+
+	@Test
+	void requestLargerThanBudgetRunsAlone() throws Exception {
+		try (OcrAdmission.Permit permit = admission.admit(1_000)) {
+			assertThat(gauge("ocr.admission.pixels.used")).isEqualTo(100);
+		}
+		assertThat(gauge("ocr.admission.pixels.used")).isZero();
+	}
+
+	private void awaitQueue(int size) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (gauge("ocr.admission.queue") != size) {
+			assertThat(System.nanoTime()).as("fila com %d pedidos", size).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	private double gauge(String name) {
+		return registry.get(name).gauge().value();
+	}
+
+	private double rejections(String reason) {
+		return registry.get("ocr.admission.rejections").tag("reason", reason).functionCounter().count();
+	}
+}
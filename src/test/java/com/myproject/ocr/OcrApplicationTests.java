@@ -3,7 +3,8 @@ package com.myproject.ocr;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// banco em memoria: o teste não grava em ./data
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ocr-test")
 class OcrApplicationTests {
 
 	@Test
@@ -0,0 +1,124 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcrCacheTests {
+
+	@TempDir
+	Path dir;
+
+	private OcrCache cache;
+
+	@BeforeEach
+	void createCache() {
+		cache = new OcrCache();
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "cacheDir", dir.toString());
+		// 10 caracteres na memoria (2 bytes por char)
+		ReflectionTestUtils.setField(cache, "memoryMaxBytes", 20L);
+		ReflectionTestUtils.setField(cache, "diskMaxBytes", 1024L);
+		ReflectionTestUtils.setField(cache, "diskTtlHours", 1L);
+		ReflectionTestUtils.invokeMethod(cache, "init");
+	}
+
+	@Test
+	void evictedFromMemoryIsReadBackFromDisk() {
+		cache.put("doc", "a", "aaaaaaaaaa");
+		cache.put("doc", "b", "bbbbbbbbbb");
+
+		assertThat(cache.get("doc", "b")).contains("bbbbbbbbbb");
+		assertThat(cache.get("doc", "a")).contains("aaaaaaaaaa");
+		assertThat(cache.get("doc", "c")).isEmpty();
+
+		CacheStats stats = cache.stats();
+		assertThat(stats.memoryHits()).isEqualTo(1);
+		assertThat(stats.diskHits()).isEqualTo(1);
+		assertThat(stats.misses()).isEqualTo(1);
+		assertThat(stats.memoryEntries()).isEqualTo(1);
+		assertThat(stats.diskEntries()).isEqualTo(2);
+	}
+
+	@Test
+	void expiredDiskEntriesAreNotServed() throws IOException {
+		// só no disco: maior que o limite da memoria
+		cache.put("doc", "velha", "x".repeat(20));
+		age(entries().get(0), TimeUnit.HOURS.toMillis(2));
+
+		assertThat(cache.get("doc", "velha")).isEmpty();
+		assertThat(entries()).isEmpty();
+	}
+
+	@Test
+	void sweepRemovesExpiredThenLeastRecentlyUsed() throws IOException {
+		ReflectionTestUtils.setField(cache, "diskMaxBytes", 50L);
+		cache.put("doc", "vencida", "v".repeat(20));
+		Path expired = entries().get(0);
+		age(expired, TimeUnit.HOURS.toMillis(2));
+		cache.put("doc", "antiga", "a".repeat(20));
+		age(added(List.of(expired)), TimeUnit.MINUTES.toMillis(30));
+		cache.put("doc", "nova1", "n".repeat(20));
+		cache.put("doc", "nova2", "m".repeat(20));
+
+		// 4 x 20 bytes: a vencida sai pelo ttl, a mais antiga pelo tamanho (60 > 50)
+		cache.sweep();
+
+		assertThat(entries()).hasSize(2);
+		assertThat(cache.get("doc", "vencida")).isEmpty();
+		assertThat(cache.get("doc", "antiga")).isEmpty();
+		assertThat(cache.get("doc", "nova1")).contains("n".repeat(20));
+		assertThat(cache.get("doc", "nova2")).contains("m".repeat(20));
+		assertThat(cache.stats().evictions()).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	void sweepRemovesOrphanedTempFiles() throws IOException {
+		Files.createDirectories(dir.resolve("doc"));
+		Path orphan = Files.writeString(dir.resolve("doc/abc123.tmp"), "parcial");
+		age(orphan, TimeUnit.HOURS.toMillis(2));
+		Path writing = Files.writeString(dir.resolve("doc/def456.tmp"), "gravando");
+
+		cache.sweep();
+
+		assertThat(orphan).doesNotExist();
+		assertThat(writing).exists();
+	}
+
+	@Test
+	void invalidateRemovesOnlyTheGroup() {
+		cache.put("doc1", "k", "um");
+		cache.put("doc2", "k", "dois");
+
+		assertThat(cache.invalidate("doc1")).isEqualTo(1);
+
+		assertThat(cache.get("doc1", "k")).isEmpty();
+		assertThat(cache.get("doc2", "k")).contains("dois");
+	}
+
+	private List<Path> entries() throws IOException {
+		try (Stream<Path> walk = Files.walk(dir)) {
+			return walk.filter(Files::isRegularFile).toList();
+		}
+	}
+
+	// a entrada gravada depois de :known
+	private Path added(List<Path> known) throws IOException {
+		return entries().stream().filter(f -> !known.contains(f)).findFirst().orElseThrow();
+	}
+
+	private static void age(Path file, long millis) throws IOException {
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - millis));
+	}
+}
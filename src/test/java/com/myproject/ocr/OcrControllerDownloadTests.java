@@ -0,0 +1,104 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OcrControllerDownloadTests {
+
+	private static final String CONTENT = "0123456789";
+
+	@TempDir
+	Path dir;
+
+	private final OcrController controller = new OcrController();
+
+	@BeforeEach
+	void storeFile() throws IOException {
+		OcrStorage storage = mock(OcrStorage.class);
+		when(storage.find("out.pdf")).thenReturn(Optional.of(Files.writeString(dir.resolve("out.pdf"), CONTENT)));
+		when(storage.find("nada.pdf")).thenReturn(Optional.empty());
+		ReflectionTestUtils.setField(controller, "ocrStorage", storage);
+	}
+
+	@Test
+	void withoutRangeSendsWholeFile() throws IOException {
+		MockHttpServletResponse response = download("out.pdf", null);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+		assertThat(response.getContentLengthLong()).isEqualTo(10);
+		assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+	}
+
+	@Test
+	void closedRangeSendsPartialContent() throws IOException {
+		MockHttpServletResponse response = download("out.pdf", "bytes=2-5");
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+		assertThat(response.getContentLengthLong()).isEqualTo(4);
+		assertThat(response.getContentAsString()).isEqualTo("2345");
+	}
+
+	@Test
+	void openAndSuffixRanges() throws IOException {
+		// a partir do byte 7 até o fim
+		MockHttpServletResponse open = download("out.pdf", "bytes=7-");
+		assertThat(open.getHeader("Content-Range")).isEqualTo("bytes 7-9/10");
+		assertThat(open.getContentAsString()).isEqualTo("789");
+
+		// os ultimos 4 bytes
+		MockHttpServletResponse suffix = download("out.pdf", "bytes=-4");
+		assertThat(suffix.getHeader("Content-Range")).isEqualTo("bytes 6-9/10");
+		assertThat(suffix.getContentAsString()).isEqualTo("6789");
+
+		// fim depois do tamanho do arquivo: corta no ultimo byte
+		MockHttpServletResponse past = download("out.pdf", "bytes=8-100");
+		assertThat(past.getHeader("Content-Range")).isEqualTo("bytes 8-9/10");
+		assertThat(past.getContentAsString()).isEqualTo("89");
+	}
+
+	@Test
+	void unsatisfiableRangeIs416() throws IOException {
+		MockHttpServletResponse beyond = download("out.pdf", "bytes=10-20");
+		assertThat(beyond.getStatus()).isEqualTo(416);
+		assertThat(beyond.getHeader("Content-Range")).isEqualTo("bytes */10");
+
+		MockHttpServletResponse malformed = download("out.pdf", "bytes=a-b");
+		assertThat(malformed.getStatus()).isEqualTo(416);
+		assertThat(malformed.getHeader("Content-Range")).isEqualTo("bytes */10");
+		assertThat(malformed.getContentAsString()).isEmpty();
+	}
+
+	@Test
+	void multipleRangesSendWholeFile() throws IOException {
+		MockHttpServletResponse response = download("out.pdf", "bytes=0-1,4-5");
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+	}
+
+	@Test
+	void unknownFileIs404() throws IOException {
+		assertThat(download("nada.pdf", "bytes=0-1").getStatus()).isEqualTo(404);
+	}
+
+	private MockHttpServletResponse download(String filename, String range) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.downloadPdf(filename, range, new MockHttpServletRequest(), response);
+		return response;
+	}
+}
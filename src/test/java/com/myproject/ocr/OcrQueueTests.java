@@ -0,0 +1,146 @@
+package com.myproject.ocr;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcrQueueTests {
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbc;
+
+	// dois nos apontando para o mesmo banco
+	private OcrQueue nodeA;
+	private OcrQueue nodeB;
+
+	@BeforeEach
+	void createQueue() {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:ocr-queue-test", "sa", "", true);
+		new ResourceDatabasePopulator(new ClassPathResource("schema-h2.sql")).execute(dataSource);
+		jdbc = new JdbcTemplate(dataSource);
+		nodeA = queue();
+		nodeB = queue();
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+		dataSource.destroy();
+	}
+
+	@Test
+	void eachTaskIsLeasedToOneNode() throws IOException {
+		String id = submit(3);
+
+		List<OcrQueue.Task> first = nodeA.claim(2);
+		List<OcrQueue.Task> second = nodeB.claim(5);
+
+		assertThat(first).extracting(OcrQueue.Task::page).containsExactly(1, 2);
+		assertThat(second).extracting(OcrQueue.Task::page).containsExactly(3);
+		assertThat(first).allSatisfy(task -> {
+			assertThat(task.documentId()).isEqualTo(id);
+			assertThat(task.attempt()).isEqualTo(1);
+		});
+		assertThat(nodeA.claim(5)).isEmpty();
+	}
+
+	@Test
+	void heartbeatRenewsOnlyTheOwnersLease() throws IOException {
+		submit(1);
+		OcrQueue.Task task = nodeA.claim(1).get(0);
+		long lease = leaseUntil(task);
+
+		assertThat(nodeA.heartbeat(task)).isTrue();
+		assertThat(leaseUntil(task)).isGreaterThanOrEqualTo(lease);
+		assertThat(nodeB.heartbeat(task)).isFalse();
+	}
+
+	@Test
+	void expiredLeaseIsReclaimedAndTheOldOwnerIsFenced() throws IOException {
+		String id = submit(1);
+		// lease que já nasce vencido: o no A "caiu"
+		ReflectionTestUtils.setField(nodeA, "leaseMs", -1_000L);
+		OcrQueue.Task stale = nodeA.claim(1).get(0);
+
+		OcrQueue.Task current = nodeB.claim(1).get(0);
+		assertThat(current.id()).isEqualTo(stale.id());
+		assertThat(current.attempt()).isEqualTo(2);
+
+		// o no A volta: não renova nem grava por cima do no B
+		assertThat(nodeA.heartbeat(stale)).isFalse();
+		nodeA.complete(stale, new PageText(1, "antigo", ExtractionMethod.OCR));
+		assertThat(nodeA.finished(id, 0)).isEmpty();
+
+		nodeB.complete(current, new PageText(1, "atual", ExtractionMethod.OCR));
+		assertThat(nodeA.finished(id, 0)).singleElement().satisfies(result -> {
+			assertThat(result.text()).isEqualTo("atual");
+			assertThat(result.error()).isNull();
+		});
+	}
+
+	@Test
+	void failedTaskIsRetriedUntilMaxAttempts() throws IOException {
+		String id = submit(1);
+
+		nodeA.fail(nodeA.claim(1).get(0), "primeira");
+		OcrQueue.Task retry = nodeB.claim(1).get(0);
+		assertThat(retry.attempt()).isEqualTo(2);
+		nodeB.fail(retry, "segunda");
+
+		assertThat(nodeA.claim(1)).isEmpty();
+		assertThat(nodeA.finished(id, 0)).singleElement()
+				.extracting(OcrQueue.TaskResult::error).isEqualTo("segunda");
+	}
+
+	@Test
+	void purgeRemovesOnlyOldDocuments() throws IOException {
+		String old = submit(2);
+		String recent = submit(1);
+		jdbc.update("UPDATE ocr_queue_document SET created_at = 0 WHERE id = ?", old);
+
+		assertThat(nodeA.purge(System.currentTimeMillis() - 60_000)).isEqualTo(1);
+
+		assertThat(count("SELECT COUNT(*) FROM ocr_queue_task WHERE document_id = ?", old)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM ocr_queue_task WHERE document_id = ?", recent)).isEqualTo(1);
+		assertThat(count("SELECT COUNT(*) FROM ocr_queue_document WHERE id = ?", recent)).isEqualTo(1);
+	}
+
+	private OcrQueue queue() {
+		OcrQueue queue = new OcrQueue();
+		ReflectionTestUtils.setField(queue, "jdbc", jdbc);
+		ReflectionTestUtils.setField(queue, "leaseMs", 60_000L);
+		ReflectionTestUtils.setField(queue, "maxAttempts", 2);
+		ReflectionTestUtils.setField(queue, "retentionMs", 60_000L);
+		return queue;
+	}
+
+	// documento com :pages paginas em branco, uma tarefa por pagina
+	private String submit(int pages) throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			for (int i = 0; i < pages; i++) document.addPage(new PDPage());
+			List<Integer> numbers = IntStream.rangeClosed(1, pages).boxed().toList();
+			return nodeA.submit(document, "hash", false, OutputMode.PAGES, numbers);
+		}
+	}
+
+	private long leaseUntil(OcrQueue.Task task) {
+		return jdbc.queryForObject("SELECT lease_until FROM ocr_queue_task WHERE id = ?", Long.class, task.id());
+	}
+
+	private int count(String sql, String id) {
+		return jdbc.queryForObject(sql, Integer.class, id);
+	}
+}
@@ -0,0 +1,32 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcrTextIndexTests {
+
+	@Test
+	void termsAreFoldedLikeTheCorrector() {
+		assertThat(OcrTextIndex.termFrequencies("Locação, LOCACAO e locação! R$ 100 a3b x"))
+				.containsOnlyKeys("locacao")
+				.containsEntry("locacao", 3);
+	}
+
+	@Test
+	void punctuationAndSymbolsAreRemoved() {
+		assertThat(OcrTextIndex.termFrequencies("\"São\" (Paulo) — contrato;"))
+				.containsOnlyKeys("sao", "paulo", "contrato");
+	}
+
+	@Test
+	void snippetStartsAroundFirstMatchingTerm() {
+		String text = "x".repeat(200) + " o Contrato de Locação do imóvel\nassinado";
+
+		assertThat(OcrTextIndex.snippet(text, Set.of("locacao", "imovel")))
+				.startsWith("x").endsWith("o Contrato de Locação do imóvel assinado");
+		assertThat(OcrTextIndex.snippet("sem o termo", Set.of("contrato"))).isEqualTo("sem o termo");
+	}
+}
@@ -0,0 +1,45 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageLayoutTests {
+
+	@Test
+	void twoColumnsAreReadColumnByColumn() {
+		PageLayout.Block left1 = new PageLayout.Block(0, 0, 100, 50);
+		PageLayout.Block left2 = new PageLayout.Block(0, 60, 100, 50);
+		PageLayout.Block right1 = new PageLayout.Block(150, 0, 100, 50);
+		PageLayout.Block right2 = new PageLayout.Block(150, 60, 100, 50);
+
+		assertThat(PageLayout.readingOrder(List.of(right2, left2, right1, left1)))
+				.containsExactly(left1, left2, right1, right2);
+	}
+
+	@Test
+	void fullWidthHeaderComesBeforeColumns() {
+		PageLayout.Block header = new PageLayout.Block(0, 0, 250, 30);
+		PageLayout.Block left = new PageLayout.Block(0, 60, 100, 200);
+		PageLayout.Block right = new PageLayout.Block(150, 60, 100, 120);
+		PageLayout.Block footer = new PageLayout.Block(0, 300, 250, 20);
+
+		assertThat(PageLayout.readingOrder(List.of(footer, right, left, header)))
+				.containsExactly(header, left, right, footer);
+	}
+
+	@Test
+	void overlappingBlocksAreMerged() {
+		List<PageLayout.Block> merged = PageLayout.merge(List.of(
+				new PageLayout.Block(0, 0, 10, 10),
+				new PageLayout.Block(100, 100, 5, 5),
+				new PageLayout.Block(5, 5, 10, 10),
+				new PageLayout.Block(12, 0, 10, 3)));
+
+		assertThat(merged).containsExactlyInAnyOrder(
+				new PageLayout.Block(0, 0, 22, 15),
+				new PageLayout.Block(100, 100, 5, 5));
+	}
+}
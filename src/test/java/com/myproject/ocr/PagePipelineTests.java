@@ -0,0 +1,74 @@
+package com.myproject.ocr;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PagePipelineTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void emitsInPageOrderWhenRecognitionFinishesOutOfOrder() throws IOException {
+		PagePipeline<Integer, String, String> pipeline = new PagePipeline<>(executor, 4, 4);
+
+		// as primeiras paginas demoram mais e terminam por ultimo
+		List<String> results = pipeline.run(8, index -> index, index -> {
+			Thread.sleep((8 - index) * 10L);
+			return "p" + index;
+		}, (index, text) -> index + "=" + text);
+
+		assertThat(results).containsExactly(IntStream.range(0, 8).mapToObj(i -> i + "=p" + i).toArray(String[]::new));
+	}
+
+	@Test
+	void rendersAtMostMaxInFlightPagesAhead() throws IOException {
+		PagePipeline<Integer, Integer, Integer> pipeline = new PagePipeline<>(executor, 2, 3);
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		pipeline.run(20, index -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			return index;
+		}, index -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(5);
+			running.decrementAndGet();
+			return index;
+		}, (index, value) -> inFlight.decrementAndGet());
+
+		assertThat(maxInFlight.get()).isEqualTo(3);
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+		assertThat(inFlight.get()).isZero();
+	}
+
+	@Test
+	void recognitionFailureStopsThePipeline() {
+		PagePipeline<Integer, Integer, Integer> pipeline = new PagePipeline<>(executor, 2, 2);
+		AtomicInteger emitted = new AtomicInteger();
+
+		assertThatThrownBy(() -> pipeline.run(10, index -> index, index -> {
+			if (index == 3) throw new IOException("pagina ruim");
+			return index;
+		}, (index, value) -> emitted.incrementAndGet()))
+				.isInstanceOf(IOException.class)
+				.hasMessage("pagina ruim");
+		assertThat(emitted.get()).isLessThanOrEqualTo(3);
+	}
+}
@@ -0,0 +1,158 @@
+package com.myproject.ocr;
+
+import net.sourceforge.tess4j.TesseractException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TesseractPoolTests {
+
+	private final List<OcrEngine> created = new ArrayList<>();
+
+	private TesseractPool pool;
+
+	// motores falsos: sem Tesseract instalado
+	@BeforeEach
+	void createPool() {
+		pool = new TesseractPool() {
+			@Override
+			OcrEngine newEngine(String language) {
+				OcrEngine engine = mock(OcrEngine.class);
+				when(engine.getLanguage()).thenReturn(language);
+				created.add(engine);
+				return engine;
+			}
+		};
+		ReflectionTestUtils.setField(pool, "defaultLanguage", "por");
+		ReflectionTestUtils.setField(pool, "languages", new String[]{"por"});
+		ReflectionTestUtils.setField(pool, "minSize", 0);
+		ReflectionTestUtils.setField(pool, "maxSize", 1);
+		ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 50L);
+		ReflectionTestUtils.setField(pool, "idleTimeoutMs", 1L);
+	}
+
+	@Test
+	void borrowTimesOutWhenAllEnginesAreBusy() throws TesseractException {
+		assertThatThrownBy(() -> pool.execute(outer -> pool.execute(inner -> inner)))
+				.isInstanceOf(TesseractException.class)
+				.hasMessageContaining("Tempo esgotado");
+
+		// o motor de fora voltou para o pool
+		assertThat(stats("por").borrowed()).isZero();
+		assertThat(stats("por").idle()).isEqualTo(1);
+		OcrEngine engine = pool.execute(e -> e);
+		assertThat(engine).isSameAs(created.get(0));
+	}
+
+	@Test
+	void languagesHaveSeparatePools() throws TesseractException {
+		// o unico motor "por" emprestado não impede um motor "eng"
+		String language = pool.execute("por", por -> pool.execute("eng", eng -> {
+			assertThat(eng).isNotSameAs(por);
+			return eng.getLanguage();
+		}));
+
+		assertThat(language).isEqualTo("eng");
+		assertThat(stats("por").created()).isEqualTo(1);
+		assertThat(stats("eng").created()).isEqualTo(1);
+	}
+
+	@Test
+	void closeEndsIdleAndReturnedEngines() throws TesseractException {
+		ReflectionTestUtils.setField(pool, "maxSize", 2);
+		pool.execute(first -> pool.execute(second -> null));
+		assertThat(created).hasSize(2);
+
+		// um motor emprestado durante o close é encerrado quando volta
+		pool.execute(engine -> {
+			pool.shutdown();
+			verify(engine, never()).close();
+			return null;
+		});
+
+		created.forEach(engine -> verify(engine).close());
+		assertThat(stats("por").created()).isZero();
+		assertThatThrownBy(() -> pool.execute(engine -> null))
+				.isInstanceOf(TesseractException.class)
+				.hasMessageContaining("encerrado");
+	}
+
+	@Test
+	void idleEnginesAreRetiredDownToMinSize() throws Exception {
+		ReflectionTestUtils.setField(pool, "maxSize", 3);
+		ReflectionTestUtils.setField(pool, "minSize", 1);
+		pool.execute(a -> pool.execute(b -> pool.execute(c -> null)));
+		assertThat(stats("por").created()).isEqualTo(3);
+
+		Thread.sleep(5);
+		pool.evictIdle();
+
+		assertThat(stats("por").created()).isEqualTo(1);
+		assertThat(stats("por").idle()).isEqualTo(1);
+		// os mais antigos saem primeiro, o ultimo devolvido fica
+		verify(created.get(0), never()).close();
+		verify(created.get(1)).close();
+		verify(created.get(2)).close();
+	}
+
+	@Test
+	void failedCreationWakesUpWaiter() throws Exception {
+		CountDownLatch creating = new CountDownLatch(1);
+		CountDownLatch fail = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		TesseractPool failing = new TesseractPool() {
+			@Override
+			OcrEngine newEngine(String language) throws TesseractException {
+				// a primeira criação segura a unica vaga e falha
+				if (calls.getAndIncrement() == 0) {
+					creating.countDown();
+					try {
+						fail.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					throw new TesseractException("traineddata ausente");
+				}
+				return mock(OcrEngine.class);
+			}
+		};
+		ReflectionTestUtils.setField(failing, "defaultLanguage", "por");
+		ReflectionTestUtils.setField(failing, "maxSize", 1);
+		ReflectionTestUtils.setField(failing, "borrowTimeoutMs", 10_000L);
+
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try {
+			Future<OcrEngine> first = threads.submit(() -> failing.execute(engine -> engine));
+			creating.await();
+			Future<OcrEngine> second = threads.submit(() -> failing.execute(engine -> engine));
+			Thread.sleep(50);
+			fail.countDown();
+
+			assertThatThrownBy(first::get).hasCauseInstanceOf(TesseractException.class);
+			// a vaga devolvida acorda quem esperava, sem esperar o borrow-timeout-ms inteiro
+			assertThat(second.get(2, TimeUnit.SECONDS)).isNotNull();
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+	private PoolStats stats(String language) {
+		return pool.stats().stream().filter(s -> s.language().equals(language)).findFirst().orElseThrow();
+	}
+}